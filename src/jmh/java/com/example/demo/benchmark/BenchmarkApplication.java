@@ -0,0 +1,68 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against a private in-memory H2 database for benchmarks, through
+ * BenchmarkConfiguration so nothing from the test sources is picked up.
+ */
+final class BenchmarkApplication {
+
+    private static final int SEED_BATCH = 1000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        // JDBC and R2DBC share one named in-memory database, so the reactive stack reads what JPA seeds
+        String database = "bench-" + UUID.randomUUID();
+        String[] defaults = {
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--employees.reactive.r2dbc-url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1",
+                "--employees.reactive.username=sa",
+                "--server.port=0",
+                "--logging.level.root=WARN"
+        };
+        String[] args = Stream.concat(Stream.of(defaults), Stream.of(properties).map(p -> "--" + p))
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(webApplicationType)
+                .run(args);
+    }
+
+    // returns the ids of the seeded employees in insertion order
+    static long[] seed(EmployeeService employeeService, int count) {
+        long[] ids = new long[count];
+        int index = 0;
+        for (int from = 0; from < count; from += SEED_BATCH) {
+            List<Employee> batch = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < Math.min(from + SEED_BATCH, count); i++) {
+                batch.add(employee("seed" + i));
+            }
+            for (Employee saved : employeeService.saveEmployees(batch)) {
+                ids[index++] = saved.getId();
+            }
+        }
+        return ids;
+    }
+
+    static Employee employee(String key) {
+        return Employee.builder()
+                .firstName("first-" + key)
+                .lastName("last-" + key)
+                .email(key + "@bench.example.com")
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.filter.TypeFilter;
+
+import java.io.IOException;
+
+/**
+ * DemoApplication's configuration for benchmarks. The benchmarks run from the test classpath, and
+ * DemoApplication's own scan would also register the @TestConfiguration classes nested in tests there.
+ * This scan keeps only the classes compiled from src/main, and skips DemoApplication so that its scan
+ * does not run as well. The auto-configuration package stays DemoApplication's, so entities and
+ * repositories are found as in the application.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@AutoConfigurationPackage(basePackageClasses = DemoApplication.class)
+@ComponentScan(basePackageClasses = DemoApplication.class, excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = DemoApplication.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = BenchmarkConfiguration.NotApplicationClass.class)
+})
+class BenchmarkConfiguration {
+
+    // matches classes that do not come from the directory or jar DemoApplication was loaded from
+    static class NotApplicationClass implements TypeFilter {
+
+        private static final String APPLICATION_CLASSES =
+                DemoApplication.class.getProtectionDomain().getCodeSource().getLocation().toString();
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) throws IOException {
+            String location = metadataReader.getResource().getURL().toString();
+            return !location.startsWith(APPLICATION_CLASSES) && !location.startsWith("jar:" + APPLICATION_CLASSES);
+        }
+    }
+}
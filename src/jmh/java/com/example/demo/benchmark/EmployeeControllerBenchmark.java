@@ -0,0 +1,86 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full MockMvc round trips through EmployeeController: dispatch, binding, service, H2 and Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeControllerBenchmark {
+
+    @Param({"1000", "10000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    private long[] ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        objectMapper = context.getBean(ObjectMapper.class);
+        ids = BenchmarkApplication.seed(context.getBean(EmployeeService.class), tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws Exception {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return mockMvc.perform(get("/api/employees/{id}", id)).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getEmployeePage() throws Exception {
+        return mockMvc.perform(get("/api/employees").param("limit", "20")).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int createEmployee() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(BenchmarkApplication.employee("web" + sequence.incrementAndGet()));
+        return mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn().getResponse().getStatus();
+    }
+}
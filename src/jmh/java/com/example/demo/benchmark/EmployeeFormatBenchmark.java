@@ -0,0 +1,94 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost of a 10k employee list per negotiated format, with and without the gzip step
+ * Tomcat adds for large responses. The payload size is reported next to the time, as the bytes
+ * secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeFormatBenchmark {
+
+    private static final int LIST_SIZE = 10000;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+
+    private List<Employee> employees;
+
+    @Setup
+    public void setup() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if(format.equals("cbor")){
+            builder.factory(new CBORFactory());
+        } else if(format.equals("smile")){
+            builder.factory(new SmileFactory());
+        }
+        objectMapper = builder.build();
+
+        employees = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            Employee employee = BenchmarkApplication.employee("format" + i);
+            employee.setId(i + 1);
+            employees.add(employee);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList(Payload payload) throws IOException {
+        byte[] serialized = serialize();
+        payload.bytes = serialized.length;
+        return serialized;
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, employees);
+        }
+        return bytes.toByteArray();
+    }
+
+    // assigned, not accumulated: every call serializes the same list, so the last size is the size
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+
+        public long bytes;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.controller.EmployeeController;
+import com.example.demo.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/employees/{id} for JSON clients with every employee hot, from the controller call to the
+ * bytes reaching the response stream, with and without the pre-encoded JSON cache. The entity cache is
+ * on in both runs. Run with -prof gc: gc.alloc.rate.norm is the number to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeJsonCacheBenchmark {
+
+    private static final int TABLE_SIZE = 10000;
+
+    @Param({"false", "true"})
+    public boolean jsonCache;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeController employeeController;
+
+    private ObjectWriter objectWriter;
+
+    private final OutputStream responseStream = OutputStream.nullOutputStream();
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, "employees.json-cache.enabled=" + jsonCache);
+        employeeController = context.getBean(EmployeeController.class);
+        // the message converter leaves the response stream open too
+        objectWriter = context.getBean(ObjectMapper.class).writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ids = BenchmarkApplication.seed(context.getBean(EmployeeService.class), TABLE_SIZE);
+        for (long id : ids) {
+            getEmployeeJsonById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getEmployeeJsonById() throws IOException {
+        getEmployeeJsonById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    // what the message converters do with the body: bytes as is, anything else through Jackson
+    private void getEmployeeJsonById(long id) throws IOException {
+        Object body = employeeController.getEmployeeJsonById(id, null).getBody();
+        if(body instanceof byte[]){
+            responseStream.write((byte[]) body);
+        } else {
+            objectWriter.writeValue(responseStream, body);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.model.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Managed-entity lookups against their DTO projection counterparts, several per read-write transaction
+ * so the commit-time flush has to dirty-check whatever the lookups put in the persistence context.
+ * Run with -prof gc to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeProjectionBenchmark {
+
+    private static final int TABLE_SIZE = 10000;
+
+    private static final Pageable FIRST_ROW = PageRequest.of(0, 1);
+
+    @Param({"1", "100"})
+    public int lookupsPerTransaction;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // the second-level cache would hide the hydration cost being measured
+        context = BenchmarkApplication.start(WebApplicationType.NONE, "employees.l2-cache.enabled=false");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        BenchmarkApplication.seed(context.getBean(EmployeeService.class), TABLE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void findEntityByEmail(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < lookupsPerTransaction; i++) {
+                blackhole.consume(employeeRepository.findByEmail(randomKey() + "@bench.example.com"));
+            }
+        });
+    }
+
+    @Benchmark
+    public void findSummaryByEmail(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < lookupsPerTransaction; i++) {
+                blackhole.consume(employeeRepository.findSummaryByEmail(randomKey() + "@bench.example.com"));
+            }
+        });
+    }
+
+    @Benchmark
+    public void findEntityByName(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < lookupsPerTransaction; i++) {
+                String key = randomKey();
+                Employee employee = employeeRepository.findByJPQLNamedParams("first-" + key, "last-" + key);
+                blackhole.consume(employee);
+            }
+        });
+    }
+
+    @Benchmark
+    public void findSummaryByName(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < lookupsPerTransaction; i++) {
+                String key = randomKey();
+                for (EmployeeSummary summary : employeeRepository.findSummariesByName("first-" + key, "last-" + key, 0L, FIRST_ROW)) {
+                    blackhole.consume(summary);
+                }
+            }
+        });
+    }
+
+    private static String randomKey() {
+        return "seed" + ThreadLocalRandom.current().nextInt(TABLE_SIZE);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EmployeeServiceImpl against an embedded H2 database at several table sizes.
+ * saveEmployee grows the table during the run, by at most a few percent at the default settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tableSize;
+
+    @Param({"false", "true"})
+    public boolean serviceCache;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long[] ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, "employees.cache.enabled=" + serviceCache);
+        employeeService = context.getBean(EmployeeService.class);
+        ids = BenchmarkApplication.seed(employeeService, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkApplication.employee("new" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    // 50 random ids in one call, against 50 getEmployeeById calls above
+    @Benchmark
+    public EmployeeBatch getEmployeesByIds() {
+        List<Long> batch = new ArrayList<>(50);
+        for (int i = 0; i < 50; i++) {
+            batch.add(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        }
+        return employeeService.getEmployeesByIds(batch);
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeePage() {
+        long after = ids[ThreadLocalRandom.current().nextInt(ids.length)] - 1;
+        return employeeService.getEmployeePage(after, 20);
+    }
+}
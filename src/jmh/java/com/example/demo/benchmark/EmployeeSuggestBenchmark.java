@@ -0,0 +1,61 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.service.Impl.EmployeeSuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeSuggestIndex lookups on their own, without the database or the web layer. Short prefixes
+ * match many keys and exercise the early stop at the result limit; long ones hit a handful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSuggestBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int tableSize;
+
+    @Param({"2", "6"})
+    public int prefixLength;
+
+    private EmployeeSuggestIndex suggestIndex;
+
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        suggestIndex = new EmployeeSuggestIndex();
+        for (int i = 0; i < tableSize; i++) {
+            suggestIndex.put(new EmployeeSummary(i + 1, "first" + i, "last" + i, "user" + i + "@bench.example.com"));
+        }
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String key = "last" + ThreadLocalRandom.current().nextInt(tableSize);
+            queries[i] = key.substring(0, Math.min(prefixLength, key.length()));
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> suggest() {
+        return suggestIndex.suggest(queries[ThreadLocalRandom.current().nextInt(queries.length)], 10);
+    }
+}
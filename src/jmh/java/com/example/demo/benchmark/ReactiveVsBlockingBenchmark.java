@@ -0,0 +1,81 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.ReactiveEmployeeServer;
+import com.example.demo.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Real HTTP round trips from many concurrent clients against the Tomcat/JPA endpoints and the Reactor
+ * Netty/R2DBC ones, over the same H2 database. Divide the reported throughput by the core count to
+ * compare requests per core; serviceCache=false keeps the servlet path honest about hitting the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class ReactiveVsBlockingBenchmark {
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "employees.cache.enabled=false",
+                "employees.l2-cache.enabled=false",
+                "employees.reactive.enabled=true",
+                "employees.reactive.port=0");
+        ids = BenchmarkApplication.seed(context.getBean(EmployeeService.class), 10000);
+        int port = "reactive".equals(stack)
+                ? context.getBean(ReactiveEmployeeServer.class).getPort()
+                : ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/employees/";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws Exception {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + id)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
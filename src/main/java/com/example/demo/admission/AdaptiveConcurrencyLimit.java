@@ -0,0 +1,61 @@
+package com.example.demo.admission;
+
+/**
+ * Latency-driven AIMD limit on requests in flight across all bulkheads. A completion slower than the
+ * threshold cuts the limit by the backoff ratio; a fast one adds 1/limit, so the limit grows by about
+ * one per limit's worth of fast requests. Growth only happens while at least half the limit is in
+ * use, so an idle service does not talk itself into a limit it has never tested.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdNanos;
+
+    private final double backoffRatio;
+
+    private double limit;
+
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+    }
+
+    public synchronized boolean tryAcquire() {
+        if(inFlight >= (int) limit){
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos) {
+        boolean busy = inFlight * 2 >= limit;
+        inFlight--;
+        if(latencyNanos > latencyThresholdNanos){
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if(busy){
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    // gives the permit back without a latency sample, for requests whose duration is up to the client
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.admission;
+
+import com.example.demo.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admission control for @Bulkhead methods. A request first needs a permit from its bulkhead, then one
+ * from the shared adaptive limit; whichever is exhausted sheds it at once instead of letting it queue
+ * for a Tomcat thread or a Hikari connection. A full bulkhead answers 429, since only that endpoint is
+ * saturated; an exhausted adaptive limit answers 503, since the whole service is slowing down. Both
+ * carry Retry-After. Registered by AdmissionControlConfig.
+ */
+@Aspect
+public class AdmissionControlAspect {
+
+    public static final String METRIC_NAME = "employees.admission";
+
+    public static final String BULKHEAD_PROPERTY_PREFIX = "employees.admission.bulkhead.";
+
+    private static final int DEFAULT_MAX_CONCURRENT = 20;
+
+    private final ConcurrentMap<String, Compartment> compartments = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Environment environment;
+
+    private final AdaptiveConcurrencyLimit adaptiveLimit;
+
+    private final long retryAfterSeconds;
+
+    private final Counter limitRejected;
+
+    public AdmissionControlAspect(MeterRegistry meterRegistry, Environment environment,
+                                  @Nullable AdaptiveConcurrencyLimit adaptiveLimit, Duration retryAfter) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.adaptiveLimit = adaptiveLimit;
+        this.retryAfterSeconds = Math.max(1, retryAfter.getSeconds());
+        this.limitRejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Requests shed by admission control")
+                .tag("bulkhead", "all")
+                .tag("reason", "limit")
+                .register(meterRegistry);
+        if(adaptiveLimit != null){
+            Gauge.builder(METRIC_NAME + ".limit", adaptiveLimit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_NAME + ".inflight", adaptiveLimit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests holding an admission permit")
+                    .tag("bulkhead", "all")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object admit(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        Compartment compartment = compartments.computeIfAbsent(bulkhead.value(), this::createCompartment);
+        if(!compartment.permits.tryAcquire()){
+            compartment.rejected.increment();
+            throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many concurrent " + bulkhead.value() + " requests", retryAfterSeconds);
+        }
+        if(adaptiveLimit != null && !adaptiveLimit.tryAcquire()){
+            compartment.permits.release();
+            limitRejected.increment();
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Concurrency limit reached", retryAfterSeconds);
+        }
+
+        long start = System.nanoTime();
+        boolean released = true;
+        try {
+            Object result = joinPoint.proceed();
+            // a streamed body does its work after the method returns: keep the permits until it is written.
+            // How long that takes depends on the size of the export and on the client reading it, so it is
+            // no latency sample for the adaptive limit
+            // an async route returns before its query has run: keep the permits until the future completes,
+            // whichever thread completes it
+            if(result instanceof CompletionStage){
+                released = false;
+                ((CompletionStage<?>) result).whenComplete((value, failure) -> release(compartment, start, true));
+                return result;
+            }
+            if(result instanceof ResponseEntity && ((ResponseEntity<?>) result).getBody() instanceof StreamingResponseBody){
+                ResponseEntity<?> response = (ResponseEntity<?>) result;
+                StreamingResponseBody body = (StreamingResponseBody) response.getBody();
+                released = false;
+                return new ResponseEntity<StreamingResponseBody>(outputStream -> {
+                    try {
+                        body.writeTo(outputStream);
+                    } finally {
+                        release(compartment, start, false);
+                    }
+                }, response.getHeaders(), response.getStatusCode());
+            }
+            return result;
+        } finally {
+            if(released){
+                release(compartment, start, true);
+            }
+        }
+    }
+
+    private void release(Compartment compartment, long start, boolean sample) {
+        compartment.permits.release();
+        if(adaptiveLimit != null){
+            if(sample){
+                adaptiveLimit.release(System.nanoTime() - start);
+            } else {
+                adaptiveLimit.release();
+            }
+        }
+    }
+
+    private Compartment createCompartment(String name) {
+        int maxConcurrent = environment.getProperty(BULKHEAD_PROPERTY_PREFIX + name, Integer.class,
+                environment.getProperty(BULKHEAD_PROPERTY_PREFIX + "default", Integer.class, DEFAULT_MAX_CONCURRENT));
+        Semaphore permits = new Semaphore(maxConcurrent);
+        Gauge.builder(METRIC_NAME + ".inflight", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Requests holding an admission permit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Requests shed by admission control")
+                .tag("bulkhead", name)
+                .tag("reason", "bulkhead")
+                .register(meterRegistry);
+        return new Compartment(permits, rejected);
+    }
+
+    private static final class Compartment {
+
+        private final Semaphore permits;
+
+        private final Counter rejected;
+
+        private Compartment(Semaphore permits, Counter rejected) {
+            this.permits = permits;
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a controller method into a named compartment with its own concurrency cap, set by
+ * employees.admission.bulkhead.&lt;name&gt;. Methods sharing a name share the cap.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    String value();
+
+}
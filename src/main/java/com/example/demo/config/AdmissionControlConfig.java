@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import com.example.demo.admission.AdaptiveConcurrencyLimit;
+import com.example.demo.admission.AdmissionControlAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Opt-in admission control for EmployeeController: per-endpoint bulkheads and, unless switched off,
+ * an adaptive concurrency limit shared by all of them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.admission.adaptive.enabled", havingValue = "true", matchIfMissing = true)
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(@Value("${employees.admission.adaptive.initial-limit:20}") int initialLimit,
+                                                             @Value("${employees.admission.adaptive.min-limit:2}") int minLimit,
+                                                             @Value("${employees.admission.adaptive.max-limit:200}") int maxLimit,
+                                                             @Value("${employees.admission.adaptive.latency-threshold:250ms}") Duration latencyThreshold,
+                                                             @Value("${employees.admission.adaptive.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio);
+    }
+
+    @Bean
+    public AdmissionControlAspect admissionControlAspect(MeterRegistry meterRegistry, Environment environment,
+                                                         ObjectProvider<AdaptiveConcurrencyLimit> adaptiveConcurrencyLimit,
+                                                         @Value("${employees.admission.retry-after:1s}") Duration retryAfter) {
+        return new AdmissionControlAspect(meterRegistry, environment, adaptiveConcurrencyLimit.getIfAvailable(), retryAfter);
+    }
+}
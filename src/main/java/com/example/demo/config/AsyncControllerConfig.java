@@ -0,0 +1,102 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.AsyncEmployeeController;
+import com.example.demo.controller.EmployeeController;
+import com.example.demo.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in async mode for EmployeeController. JDBC-bound endpoints are served by AsyncEmployeeController
+ * through a handler mapping ordered ahead of the default one; every other endpoint falls through to
+ * EmployeeController unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.async.enabled", havingValue = "true")
+public class AsyncControllerConfig {
+
+    public static final String DB_EXECUTOR_METRIC_NAME = "employees.db.executor";
+
+    // threads beyond the connection pool size would only queue inside Hikari, so match it
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor employeeDbExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                                 @Value("${employees.async.queue-capacity:100}") int queueCapacity,
+                                                 MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder(DB_EXECUTOR_METRIC_NAME + ".rejected")
+                .description("Requests shed because the database executor queue was full")
+                .register(meterRegistry);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("employee-db-"),
+                (task, pool) -> {
+                    rejected.increment();
+                    new ThreadPoolExecutor.AbortPolicy().rejectedExecution(task, pool);
+                });
+        new ExecutorServiceMetrics(executor, DB_EXECUTOR_METRIC_NAME, Collections.emptyList()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    @Bean
+    public AsyncEmployeeController asyncEmployeeController(EmployeeController employeeController,
+                                                           ThreadPoolExecutor employeeDbExecutor) {
+        // admitted once, by the async route's bulkhead: the delegated call must not take a second permit,
+        // which a full compartment would refuse to the request already holding one
+        Object target = AopProxyUtils.getSingletonTarget(employeeController);
+        EmployeeController delegate = target instanceof EmployeeController ? (EmployeeController) target : employeeController;
+        // a request pinned to the primary database stays pinned on the executor thread
+        return new AsyncEmployeeController(delegate,
+                task -> employeeDbExecutor.execute(ReadWriteRoutingDataSource.propagatePin(task)));
+    }
+
+    @Bean
+    public RequestMappingHandlerMapping asyncEmployeeHandlerMapping(
+            @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping defaultMapping,
+            @Qualifier("mvcContentNegotiationManager") ContentNegotiationManager contentNegotiationManager) {
+        return overlayHandlerMapping(AsyncEmployeeController.class, defaultMapping.getOrder() - 1,
+                defaultMapping, contentNegotiationManager);
+    }
+
+    // a mapping that only picks up handlers of the given type and wins over the default one for their routes
+    static RequestMappingHandlerMapping overlayHandlerMapping(Class<?> handlerType, int order,
+                                                              RequestMappingHandlerMapping defaultMapping,
+                                                              ContentNegotiationManager contentNegotiationManager) {
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping() {
+            @Override
+            protected boolean isHandler(Class<?> beanType) {
+                return handlerType.isAssignableFrom(beanType);
+            }
+
+            // a path the overlay maps for other methods or media types belongs to the next mapping,
+            // instead of ending in a 405 or 415 here
+            @Override
+            protected HandlerMethod handleNoMatch(Set<RequestMappingInfo> infos, String lookupPath, HttpServletRequest request) {
+                return null;
+            }
+        };
+        mapping.setOrder(order);
+        mapping.setContentNegotiationManager(contentNegotiationManager);
+        if(defaultMapping.getPatternParser() != null){
+            mapping.setPatternParser(defaultMapping.getPatternParser());
+        }
+        return mapping;
+    }
+}
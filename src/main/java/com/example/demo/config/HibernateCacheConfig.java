@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level and query cache backed by Caffeine's JCache provider. Regions are
+ * created here rather than on demand so their sizes come from application properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.l2-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class HibernateCacheConfig {
+
+    // Hibernate's default timestamps region; it must never evict or query results could go stale
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    static final String DEFAULT_QUERY_RESULTS_REGION = "default-query-results-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${employees.l2-cache.entity-max-size:10000}") long entityMaxSize,
+                                              @Value("${employees.l2-cache.query-max-size:1000}") long queryMaxSize) {
+        // a private manager per application context, so parallel test contexts do not share regions
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("employees-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        cacheManager.createCache(Employee.CACHE_REGION, region(OptionalLong.of(entityMaxSize)));
+        cacheManager.createCache(EmployeeRepository.QUERY_CACHE_REGION, region(OptionalLong.of(queryMaxSize)));
+        cacheManager.createCache(DEFAULT_QUERY_RESULTS_REGION, region(OptionalLong.of(queryMaxSize)));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, region(OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                  @Value("${employees.sharding.enabled:false}") boolean sharded) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            // query results are keyed by query and parameters only, so shards would share them. Entities
+            // are safe: ids are unique across shards
+            properties.put("hibernate.cache.use_query_cache", Boolean.toString(!sharded));
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(OptionalLong maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.IngestEmployeeController;
+import com.example.demo.service.Impl.EmployeeIngestQueue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Opt-in write-coalescing mode for POST /api/employees. Creates go through EmployeeIngestQueue; every
+ * other endpoint, and the async mode if enabled, is unaffected.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.ingest.enabled", havingValue = "true")
+public class IngestControllerConfig {
+
+    @Bean
+    public IngestEmployeeController ingestEmployeeController(EmployeeIngestQueue employeeIngestQueue) {
+        return new IngestEmployeeController(employeeIngestQueue);
+    }
+
+    // one ahead of the async overlay, so a create is queued rather than run on the database executor
+    @Bean
+    public RequestMappingHandlerMapping ingestEmployeeHandlerMapping(
+            @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping defaultMapping,
+            @Qualifier("mvcContentNegotiationManager") ContentNegotiationManager contentNegotiationManager) {
+        return AsyncControllerConfig.overlayHandlerMapping(IngestEmployeeController.class, defaultMapping.getOrder() - 2,
+                defaultMapping, contentNegotiationManager);
+    }
+}
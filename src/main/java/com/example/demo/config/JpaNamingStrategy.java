@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.util.ParsingUtils;
+
+import javax.persistence.Column;
+import javax.persistence.Table;
+
+/**
+ * Lets Spring Data R2DBC reuse the table and column names declared with JPA annotations, so both stacks
+ * map the one Employee entity to the same schema. Names go through the same camel case to underscore
+ * rule as Spring Boot's physical naming strategy for Hibernate.
+ */
+public class JpaNamingStrategy implements NamingStrategy {
+
+    @Override
+    public String getTableName(Class<?> type) {
+        Table table = type.getAnnotation(Table.class);
+        return table != null && !table.name().isEmpty() ? physicalName(table.name()) : NamingStrategy.super.getTableName(type);
+    }
+
+    @Override
+    public String getColumnName(RelationalPersistentProperty property) {
+        Column column = property.findAnnotation(Column.class);
+        return physicalName(column != null && !column.name().isEmpty() ? column.name() : property.getName());
+    }
+
+    private static String physicalName(String logicalName) {
+        return ParsingUtils.reconcatenateCamelCase(logicalName, "_");
+    }
+}
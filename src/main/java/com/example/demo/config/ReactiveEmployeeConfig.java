@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in reactive stack next to the servlet application. Spring Boot only runs one web server type per
+ * context, so ReactiveEmployeeServer starts its own Reactor Netty server on employees.reactive.port.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.reactive.enabled", havingValue = "true")
+public class ReactiveEmployeeConfig {
+
+    @Bean
+    public ReactiveEmployeeServer reactiveEmployeeServer(@Value("${employees.reactive.r2dbc-url}") String url,
+                                                         @Value("${employees.reactive.username:}") String username,
+                                                         @Value("${employees.reactive.password:}") String password,
+                                                         @Value("${employees.reactive.pool-size:10}") int poolSize,
+                                                         @Value("${employees.reactive.port:8081}") int port,
+                                                         ObjectMapper objectMapper) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPool connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(poolSize, 2))
+                .maxSize(poolSize)
+                .build());
+        return new ReactiveEmployeeServer(connectionPool, objectMapper, port);
+    }
+}
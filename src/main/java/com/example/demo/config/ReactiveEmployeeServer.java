@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.ReactiveEmployeeHandler;
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.Collections;
+
+/**
+ * Owns the whole reactive stack: the R2DBC pool, ReactiveEmployeeRepository and a Reactor Netty server
+ * running ReactiveEmployeeHandler. None of these are exposed as beans because a ConnectionFactory bean makes
+ * Spring Boot drop the JDBC DataSource the JPA stack runs on.
+ */
+public class ReactiveEmployeeServer implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    private final DisposableServer server;
+
+    public ReactiveEmployeeServer(ConnectionPool connectionPool, ObjectMapper objectMapper, int port) {
+        this.connectionPool = connectionPool;
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        ReactiveEmployeeHandler handler = new ReactiveEmployeeHandler(createRepository(connectionPool));
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(ReactiveEmployeeHandler.routes(handler), strategies);
+        this.server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+
+    public static ReactiveEmployeeRepository createRepository(ConnectionFactory connectionFactory) {
+        R2dbcDialect dialect = DialectResolver.getDialect(connectionFactory);
+        MappingR2dbcConverter converter = new MappingR2dbcConverter(new R2dbcMappingContext(new JpaNamingStrategy()),
+                R2dbcCustomConversions.of(dialect, Collections.emptyList()));
+        R2dbcEntityTemplate template = new R2dbcEntityTemplate(DatabaseClient.create(connectionFactory), dialect, converter);
+        return new R2dbcRepositoryFactory(template).getRepository(ReactiveEmployeeRepository.class);
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+
+    @Override
+    public void destroy() {
+        server.disposeNow();
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.config;
+
+import com.example.demo.datasource.ReadWriteRoutingDataSource;
+import com.example.demo.datasource.ReadYourWritesFilter;
+import com.example.demo.datasource.RecentlyWrittenIds;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import java.time.Duration;
+
+/**
+ * Opt-in read/write split: spring.datasource becomes the primary pool, employees.routing.replica.*
+ * a second pool for read-only transactions, and the DataSource JPA sees routes between them per
+ * transaction.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.routing.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${employees.routing.replica.url}") String url,
+                                              @Value("${employees.routing.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${employees.routing.replica.password:${spring.datasource.password:}}") String password,
+                                              @Value("${employees.routing.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // lazy, so the physical connection is fetched at the first statement, after the transaction has
+    // declared itself read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    // Hibernate otherwise holds the first connection for the whole open-in-view session, and a write
+    // after a read in one request (PUT checks the version first) would land on the replica
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandlingCustomizer() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    // the same window: how long a replica is assumed to take to apply a write
+    @Bean
+    public RecentlyWrittenIds recentlyWrittenIds(@Value("${employees.routing.read-your-writes:5s}") Duration window) {
+        return new RecentlyWrittenIds(window);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(@Value("${employees.routing.read-your-writes:5s}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
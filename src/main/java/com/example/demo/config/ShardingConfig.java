@@ -0,0 +1,123 @@
+package com.example.demo.config;
+
+import com.example.demo.datasource.ShardAwareSequenceGenerator;
+import com.example.demo.datasource.ShardRoutingDataSource;
+import com.example.demo.datasource.ShardSchemaUpdater;
+import com.example.demo.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in hash sharding: one pool per URL in employees.sharding.urls, and a DataSource for JPA that
+ * routes to the shard ShardedEmployeeService is working on. Replaces spring.datasource, so it cannot
+ * be combined with employees.routing. Startup fails when the reactive endpoints are on, or when shard 0
+ * holds rows that id mod N places elsewhere.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    public ShardingConfig(@Value("${employees.reactive.enabled:false}") boolean reactive) {
+        // the reactive server has its own R2DBC pool on one database, so it would only see one shard
+        if(reactive){
+            throw new IllegalStateException("employees.reactive cannot be combined with employees.sharding");
+        }
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(@Value("${employees.sharding.urls}") List<String> urls,
+                                                         @Value("${employees.sharding.username:${spring.datasource.username:}}") String username,
+                                                         @Value("${employees.sharding.password:${spring.datasource.password:}}") String password,
+                                                         @Value("${employees.sharding.maximum-pool-size:10}") int maximumPoolSize,
+                                                         MeterRegistry meterRegistry) {
+        List<HikariDataSource> shards = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource shard = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            shard.setPoolName("shard-" + shards.size());
+            shard.setMaximumPoolSize(maximumPoolSize);
+            // the pools are not beans, so Spring Boot does not bind their metrics
+            shard.setMetricRegistry(meterRegistry);
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // lazy, so the shard is picked at the first statement rather than when the transaction begins
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardSchemaUpdater shardSchemaUpdater() {
+        return new ShardSchemaUpdater();
+    }
+
+    // connections go back after each transaction, so one open-in-view session can visit several shards
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateCustomizer(ShardRoutingDataSource shardRoutingDataSource,
+                                                                     ShardSchemaUpdater shardSchemaUpdater) {
+        return properties -> {
+            properties.put(ShardAwareSequenceGenerator.SHARDS_SETTING, Integer.toString(shardRoutingDataSource.getShardCount()));
+            properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(shardSchemaUpdater));
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.sharding.update-schema", havingValue = "true")
+    public SmartInitializingSingleton shardSchemaUpdate(EntityManagerFactory entityManagerFactory,
+                                                        ShardSchemaUpdater shardSchemaUpdater,
+                                                        ShardRoutingDataSource shardRoutingDataSource) {
+        return () -> shardSchemaUpdater.update(shardRoutingDataSource.getShardCount());
+    }
+
+    // Rows written before sharding was enabled, or under another shard count, stay where they are, and
+    // lookups by id go to a shard that does not have them. They must be moved to shard id mod N first
+    @Bean
+    public SmartInitializingSingleton shardPlacementCheck(EmployeeRepository employeeRepository,
+                                                          ShardRoutingDataSource shardRoutingDataSource) {
+        return () -> {
+            int shardCount = shardRoutingDataSource.getShardCount();
+            List<Long> misplaced = ShardRoutingDataSource.onShard(0,
+                    () -> employeeRepository.findIdsOffShard(shardCount, 0, PageRequest.of(0, 1)));
+            if(!misplaced.isEmpty()){
+                long id = misplaced.get(0);
+                throw new IllegalStateException("Shard 0 holds employee " + id + ", which belongs on shard "
+                        + ShardRoutingDataSource.shardOf(id, shardCount) + "; move every row whose id mod "
+                        + shardCount + " is not 0 to that shard before enabling employees.sharding");
+            }
+        };
+    }
+
+    // scatter-gather queries: one task per shard, run while the calling thread queries the last shard
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService employeeShardExecutor(@Value("${employees.sharding.executor-threads:16}") int threads) {
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("employee-shard-"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.controller;
+
+import com.example.demo.admission.Bulkhead;
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeDeleteResult;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummaryPage;
+import com.example.demo.model.Employee;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Async variants of the JDBC-bound EmployeeController endpoints. Each call runs the regular
+ * controller method on the bounded database executor so Tomcat workers are released while the
+ * query runs. Registered only through AsyncControllerConfig, ahead of the default handler mapping,
+ * which is why it carries no @RestController or type-level @RequestMapping. Admission happens here,
+ * with the bulkheads of the matching EmployeeController routes, so a request is shed before it waits in
+ * the executor queue; AsyncControllerConfig hands in the controller without its admission proxy.
+ */
+@ResponseBody
+public class AsyncEmployeeController {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private EmployeeController employeeController;
+
+    private Executor dbExecutor;
+
+    public AsyncEmployeeController(EmployeeController employeeController, Executor dbExecutor) {
+        this.employeeController = employeeController;
+        this.dbExecutor = dbExecutor;
+    }
+
+    @PostMapping("/api/employees")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Bulkhead("write")
+    public CompletableFuture<Employee> createEmployee(@RequestBody Employee employee){
+        return CompletableFuture.supplyAsync(() -> employeeController.createEmployee(employee), dbExecutor);
+    }
+
+    @PostMapping("/api/employees/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Bulkhead("write")
+    public CompletableFuture<List<Employee>> createEmployees(@RequestBody List<Employee> employees){
+        return CompletableFuture.supplyAsync(() -> employeeController.createEmployees(employees), dbExecutor);
+    }
+
+    @GetMapping("/api/employees")
+    @Bulkhead("list")
+    public CompletableFuture<ResponseEntity<EmployeePage>> getAllEmployees(@RequestParam(value = "after", required = false) String after,
+                                                                           @RequestParam(value = "limit", required = false) Integer limit,
+                                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return CompletableFuture.supplyAsync(() -> employeeController.getAllEmployees(after, limit, ifNoneMatch), dbExecutor);
+    }
+
+    @GetMapping(value = "/api/employees", params = "ids")
+    @Bulkhead("batch")
+    public CompletableFuture<EmployeeBatch> getEmployeesByIds(@RequestParam("ids") List<Long> ids){
+        return CompletableFuture.supplyAsync(() -> employeeController.getEmployeesByIds(ids), dbExecutor);
+    }
+
+    @PostMapping("/api/employees/lookup")
+    @Bulkhead("batch")
+    public CompletableFuture<EmployeeBatch> lookupEmployees(@RequestBody List<Long> ids){
+        return CompletableFuture.supplyAsync(() -> employeeController.lookupEmployees(ids), dbExecutor);
+    }
+
+    @GetMapping("/api/employees/search")
+    @Bulkhead("search")
+    public CompletableFuture<EmployeeSummaryPage> searchEmployees(@RequestParam("lastName") String lastName,
+                                                                  @RequestParam(value = "firstName", required = false) String firstName,
+                                                                  @RequestParam(value = "after", required = false) String after,
+                                                                  @RequestParam(value = "limit", required = false) Integer limit){
+        return CompletableFuture.supplyAsync(() -> employeeController.searchEmployees(lastName, firstName, after, limit), dbExecutor);
+    }
+
+    // digits only: this mapping is consulted first and must not swallow /export, /summaries and the like
+    @GetMapping("/api/employees/{id:\\d+}")
+    @Bulkhead("lookup")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId,
+                                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        return CompletableFuture.supplyAsync(() -> employeeController.getEmployeeById(employeeId, ifNoneMatch, accept), dbExecutor);
+    }
+
+    @GetMapping(value = "/api/employees/{id:\\d+}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead("lookup")
+    public CompletableFuture<ResponseEntity<?>> getEmployeeJsonById(@PathVariable("id") long employeeId,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return CompletableFuture.supplyAsync(() -> employeeController.getEmployeeJsonById(employeeId, ifNoneMatch), dbExecutor);
+    }
+
+    @PutMapping("/api/employees/{id:\\d+}")
+    @Bulkhead("write")
+    public CompletableFuture<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") long employeeId,
+                                                                      @RequestBody Employee employee,
+                                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        return CompletableFuture.supplyAsync(() -> employeeController.updateEmployee(employeeId, employee, ifMatch), dbExecutor);
+    }
+
+    @PatchMapping(value = "/api/employees/{id:\\d+}", consumes = {EmployeeController.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    @Bulkhead("write")
+    public CompletableFuture<ResponseEntity<Employee>> patchEmployee(@PathVariable("id") long employeeId,
+                                                                     @RequestBody JsonNode patch,
+                                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                     @RequestHeader(value = EmployeeController.PREFER, required = false) String prefer){
+        return CompletableFuture.supplyAsync(() -> employeeController.patchEmployee(employeeId, patch, ifMatch, prefer), dbExecutor);
+    }
+
+    @DeleteMapping("/api/employees/{id:\\d+}")
+    @Bulkhead("write")
+    public CompletableFuture<ResponseEntity<Void>> deleteEmployee(@PathVariable("id") long employeeId){
+        return CompletableFuture.supplyAsync(() -> employeeController.deleteEmployee(employeeId), dbExecutor);
+    }
+
+    @DeleteMapping(value = "/api/employees", params = "ids")
+    @Bulkhead("write")
+    public CompletableFuture<EmployeeDeleteResult> deleteEmployees(@RequestParam("ids") List<Long> ids){
+        return CompletableFuture.supplyAsync(() -> employeeController.deleteEmployees(ids), dbExecutor);
+    }
+
+    // the executor queue is full: shed the request instead of parking it
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleSaturation(RejectedExecutionException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
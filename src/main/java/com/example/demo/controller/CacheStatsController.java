@@ -0,0 +1,72 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.Impl.EmployeeCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+
+    private ObjectProvider<EmployeeCache> employeeCache;
+
+    private ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Autowired
+    public CacheStatsController(ObjectProvider<EmployeeCache> employeeCache,
+                                ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.employeeCache = employeeCache;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getCacheStats(){
+        Map<String, Object> stats = new LinkedHashMap<>();
+
+        EmployeeCache cache = employeeCache.getIfAvailable();
+        if(cache != null){
+            CacheStats cacheStats = cache.stats();
+            Map<String, Object> service = new LinkedHashMap<>();
+            service.put("size", cache.size());
+            service.put("hits", cacheStats.hitCount());
+            service.put("misses", cacheStats.missCount());
+            service.put("evictions", cacheStats.evictionCount());
+            service.put("hitRate", cacheStats.hitRate());
+            stats.put("employeeCache", service);
+        }
+
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if(factory != null){
+            Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+            if(statistics.isStatisticsEnabled()){
+                Map<String, Object> regions = new LinkedHashMap<>();
+                for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+                    CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+                    if(region == null){
+                        continue;
+                    }
+                    Map<String, Object> regionStats = new LinkedHashMap<>();
+                    regionStats.put("hits", region.getHitCount());
+                    regionStats.put("misses", region.getMissCount());
+                    regionStats.put("puts", region.getPutCount());
+                    regionStats.put("size", region.getElementCountInMemory());
+                    regions.put(regionName, regionStats);
+                }
+                stats.put("hibernateRegions", regions);
+            }
+        }
+        return stats;
+    }
+}
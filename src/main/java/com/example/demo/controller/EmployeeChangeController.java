@@ -0,0 +1,92 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.EmployeeChangeBatch;
+import com.example.demo.model.EmployeeChange;
+import com.example.demo.service.Impl.EmployeeChangeFeed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Change feed over the employee outbox, in place of polling the full list. A consumer reads the head
+ * (GET without after), takes a snapshot with the export, then follows the feed from that head; changes
+ * made during the snapshot are replayed, which is harmless since each one carries the whole row and its
+ * version. The stream and the JSON batches take the same after position.
+ */
+@RestController
+@RequestMapping("/api/employees/changes")
+@ConditionalOnProperty(name = "employees.changes.enabled", havingValue = "true")
+public class EmployeeChangeController {
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    // resolved per request: web slice tests load every controller but not the feed
+    private ObjectProvider<EmployeeChangeFeed> changeFeed;
+
+    @Autowired
+    public EmployeeChangeController(ObjectProvider<EmployeeChangeFeed> changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    // an EventSource reconnect sends Last-Event-ID with the original URL, so the header wins over after
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value = "after", required = false) @Nullable Long after,
+                                    @RequestHeader(value = LAST_EVENT_ID, required = false) @Nullable String lastEventId){
+        EmployeeChangeFeed feed = changeFeed.getObject();
+        long afterSeq;
+        if(lastEventId != null){
+            try {
+                afterSeq = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Last-Event-ID is not a change seq", e);
+            }
+        } else {
+            afterSeq = after != null ? after : feed.getHead();
+        }
+        checkRetained(feed, afterSeq);
+        return feed.subscribe(afterSeq);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public EmployeeChangeBatch getChanges(@RequestParam(value = "after", required = false) @Nullable Long after,
+                                          @RequestParam(value = "limit", required = false) @Nullable Integer limit){
+        EmployeeChangeFeed feed = changeFeed.getObject();
+        long head = feed.getHead();
+        if(after == null){
+            return new EmployeeChangeBatch(List.of(), head, head);
+        }
+        checkRetained(feed, after);
+        int size = limit == null ? feed.getBatchSize() : limit;
+        if(size < 1 || size > feed.getBatchSize()){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + feed.getBatchSize());
+        }
+        List<EmployeeChange> changes = feed.getChangesAfter(after, size);
+        long lastSeq = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq();
+        return new EmployeeChangeBatch(changes, lastSeq, Math.max(head, lastSeq));
+    }
+
+    // max-subscribers streams are open
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleSaturation(RejectedExecutionException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, AsyncEmployeeController.RETRY_AFTER_SECONDS)
+                .build();
+    }
+
+    private static void checkRetained(EmployeeChangeFeed feed, long afterSeq){
+        if(afterSeq < 0 || !feed.isRetained(afterSeq)){
+            throw new ResponseStatusException(HttpStatus.GONE, "Changes after " + afterSeq + " are no longer kept; take a new snapshot");
+        }
+    }
+}
@@ -1,42 +1,475 @@
 package com.example.demo.controller;
 
+import com.example.demo.admission.Bulkhead;
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeCursor;
+import com.example.demo.dto.EmployeeDeleteResult;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryPage;
 import com.example.demo.model.Employee;
 import com.example.demo.service.EmployeeService;
+import com.example.demo.service.Impl.EmployeeJsonCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    static final String PREFER = "Prefer";
+
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private static final List<MediaType> BINARY_REPRESENTATIONS = List.of(MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(Employee.FIRST_NAME, Employee.LAST_NAME, Employee.EMAIL);
+
     private EmployeeService employeeService;
 
+    private ObjectWriter employeeWriter;
+
+    private EmployeeJsonCache employeeJsonCache;
+
+    // built once so a cache hit allocates no loader
+    private final Function<Long, EmployeeJsonCache.Entry> jsonEncoder = this::encodeEmployee;
+
+    @Value("${employees.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${employees.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${employees.batch.max-ids:1000}")
+    private int maxBatchIds;
+
+    @Value("${employees.suggest.default-results:10}")
+    private int defaultSuggestions;
+
+    @Value("${employees.suggest.max-results:50}")
+    private int maxSuggestions;
+
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              @Nullable EmployeeJsonCache employeeJsonCache) {
         this.employeeService = employeeService;
+        this.employeeJsonCache = employeeJsonCache;
+        // flushing per row would turn every employee into its own socket write
+        this.employeeWriter = objectMapper.writerFor(Employee.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
+    @Bulkhead("write")
     @ResponseStatus(HttpStatus.CREATED)
     public Employee createEmployee(@RequestBody Employee employee){
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("/batch")
+    @Bulkhead("write")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Employee> createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    @Bulkhead("list")
+    public ResponseEntity<EmployeePage> getAllEmployees(@RequestParam(value = "after", required = false) String after,
+                                                        @RequestParam(value = "limit", required = false) Integer limit,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        long afterId = afterId(after);
+        int pageSize = pageSize(limit);
+        // read before the query: a concurrent write can leave the tag older than the page, never newer
+        String etag = etag(employeeService.getEmployeesVersion());
+        // weak, because the same version goes out as JSON, CBOR or Smile, gzipped or not; Tomcat also
+        // refuses to compress a response carrying a strong ETag. Caches must key on Accept
+        String weakEtag = "W/" + etag;
+        if(etagMatches(ifNoneMatch, etag, false)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakEtag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(weakEtag).varyBy(HttpHeaders.ACCEPT).body(employeeService.getEmployeePage(afterId, pageSize));
+    }
+
+    @GetMapping(params = "ids")
+    @Bulkhead("batch")
+    public EmployeeBatch getEmployeesByIds(@RequestParam("ids") List<Long> ids){
+        return lookupEmployees(ids);
+    }
+
+    // same as GET ?ids= for id lists too long for a URL
+    @PostMapping("/lookup")
+    @Bulkhead("batch")
+    public EmployeeBatch lookupEmployees(@RequestBody List<Long> ids){
+        if(ids.isEmpty() || ids.size() > maxBatchIds){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + maxBatchIds + " ids are required");
+        }
+        if(ids.contains(null)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ids must not be null");
+        }
+        return employeeService.getEmployeesByIds(ids);
+    }
+
+    @DeleteMapping("{id}")
+    @Bulkhead("write")
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") long employeeId){
+        return employeeService.deleteEmployee(employeeId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping(params = "ids")
+    @Bulkhead("write")
+    public EmployeeDeleteResult deleteEmployees(@RequestParam("ids") List<Long> ids){
+        if(ids.isEmpty() || ids.size() > maxBatchIds){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + maxBatchIds + " ids are required");
+        }
+        if(ids.contains(null)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ids must not be null");
+        }
+        return new EmployeeDeleteResult(employeeService.deleteEmployees(ids));
+    }
+
+    @GetMapping("/search")
+    @Bulkhead("search")
+    public EmployeeSummaryPage searchEmployees(@RequestParam("lastName") String lastName,
+                                               @RequestParam(value = "firstName", required = false) String firstName,
+                                               @RequestParam(value = "after", required = false) String after,
+                                               @RequestParam(value = "limit", required = false) Integer limit){
+        return employeeService.searchEmployees(firstName, lastName, afterId(after), pageSize(limit));
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @Bulkhead("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(){
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = employeeWriter.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            employeeService.exportEmployees(employee -> {
+                try {
+                    employeeWriter.writeValue(generator, employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @GetMapping("/suggest")
+    @Bulkhead("suggest")
+    public List<EmployeeSummary> suggestEmployees(@RequestParam("q") String query,
+                                                  @RequestParam(value = "limit", required = false) Integer limit){
+        if(query.isBlank()){
+            return List.of();
+        }
+        int results = limit == null ? defaultSuggestions : Math.max(1, Math.min(limit, maxSuggestions));
+        return employeeService.suggestEmployees(query, results);
+    }
+
+    @GetMapping(value = "/summaries", params = "email")
+    @Bulkhead("lookup")
+    public ResponseEntity<EmployeeSummary> getEmployeeSummaryByEmail(@RequestParam("email") String email){
+        return employeeService.getEmployeeSummaryByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElseGet(()->ResponseEntity.notFound().build());
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
+    @Bulkhead("lookup")
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        return employeeById(employeeId, ifNoneMatch, representation(accept));
+    }
+
+    // JSON clients (including Accept */* or none) get pre-encoded bytes when the JSON cache is on;
+    // CBOR and Smile requests fall through to getEmployeeById
+    @GetMapping(value = "{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead("lookup")
+    public ResponseEntity<?> getEmployeeJsonById(@PathVariable("id") long employeeId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if(employeeJsonCache == null){
+            return employeeById(employeeId, ifNoneMatch, MediaType.APPLICATION_JSON);
+        }
+        EmployeeJsonCache.Entry entry = employeeJsonCache.get(employeeId, jsonEncoder);
+        if(entry == null){
+            return ResponseEntity.notFound().build();
+        }
+        if(etagMatches(ifNoneMatch, entry.getEtag(), false)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.getEtag()).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        // byte[] goes out through ByteArrayHttpMessageConverter, written to the response stream as is
+        return ResponseEntity.ok().eTag(entry.getEtag()).varyBy(HttpHeaders.ACCEPT).contentType(MediaType.APPLICATION_JSON).body(entry.getJson());
+    }
+
+    // each format carries its own strong tag, and the content type is set to the one the tag names so
+    // negotiation cannot pick another; caches must key on Accept
+    private ResponseEntity<Employee> employeeById(long employeeId, String ifNoneMatch, MediaType representation){
+        // revalidation only needs the version, from the caches when they have it; the entity is loaded
+        // when it has changed
+        if(ifNoneMatch != null){
+            Optional<Long> version = employeeService.getCachedEmployeeVersion(employeeId);
+            if(version.isEmpty()){
+                return ResponseEntity.notFound().build();
+            }
+            String etag = etag(version.get(), representation);
+            if(etagMatches(ifNoneMatch, etag, false)){
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok()
+                        .eTag(etag(employee.getVersion(), representation))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .contentType(representation)
+                        .body(employee))
                 .orElseGet(()->ResponseEntity.notFound().build());
     }
+
+    // without If-Match the update applies to whatever version is current
+    @PutMapping("{id}")
+    @Bulkhead("write")
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId,
+                                                   @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Optional<Long> currentVersion = employeeService.getEmployeeVersion(employeeId);
+        if(currentVersion.isEmpty()){
+            return ResponseEntity.notFound().build();
+        }
+        if(ifMatch != null && !versionMatches(ifMatch, currentVersion.get())){
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag(currentVersion.get())).build();
+        }
+
+        employee.setId(employeeId);
+        employee.setVersion(currentVersion.get());
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeService.updateEmployee(employee);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // changed between the version check and the update
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return ResponseEntity.ok().eTag(etag(savedEmployee.getVersion())).body(savedEmployee);
+    }
+
+    // RFC 7396 merge patch: members present in the body replace the stored value, absent members are kept.
+    // With "Prefer: return=minimal" a one-field patch answers 204, and is a single UPDATE statement when the
+    // second-level cache is off
+    @PatchMapping(value = "{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    @Bulkhead("write")
+    public ResponseEntity<Employee> patchEmployee(@PathVariable("id") long employeeId,
+                                                  @RequestBody JsonNode patch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestHeader(value = PREFER, required = false) String prefer){
+        Map<String, String> changes = mergePatchChanges(patch);
+        try {
+            Long expectedVersion = expectedVersion(employeeId, ifMatch);
+            if(changes.size() == 1 && RETURN_MINIMAL.equalsIgnoreCase(prefer)){
+                Map.Entry<String, String> change = changes.entrySet().iterator().next();
+                if(!employeeService.patchEmployeeField(employeeId, change.getKey(), change.getValue(), expectedVersion)){
+                    return ResponseEntity.notFound().build();
+                }
+                ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent().header(PREFERENCE_APPLIED, RETURN_MINIMAL);
+                // the statement bumps the version by one, so the new tag is only known when the old one was given
+                if(expectedVersion != null){
+                    response.eTag(etag(expectedVersion + 1));
+                }
+                return response.build();
+            }
+            return employeeService.patchEmployee(employeeId, changes, expectedVersion)
+                    .map(employee -> ResponseEntity.ok().eTag(etag(employee.getVersion())).body(employee))
+                    .orElseGet(()->ResponseEntity.notFound().build());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    // only string properties exist and none is nullable, so a null (remove) member cannot be applied
+    private static Map<String, String> mergePatchChanges(JsonNode patch){
+        if(patch == null || !patch.isObject()){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Merge patch must be a JSON object");
+        }
+        Map<String, String> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if(!PATCHABLE_FIELDS.contains(field.getKey())){
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field cannot be patched: " + field.getKey());
+            }
+            if(!field.getValue().isTextual() || field.getValue().asText().isBlank()){
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field must be a non-empty string: " + field.getKey());
+            }
+            changes.put(field.getKey(), field.getValue().asText());
+        }
+        return changes;
+    }
+
+    // the version an If-Match header pins the update to, or null for any version
+    private Long expectedVersion(long employeeId, String ifMatch){
+        if(ifMatch == null || ifMatch.trim().equals("*")){
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if(tag.startsWith("\"") && tag.endsWith("\"") && tag.length() > 2){
+            try {
+                return Long.parseLong(stripRepresentation(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException e) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, employeeId);
+            }
+        }
+        // a list of tags: compare against the current one
+        Optional<Long> currentVersion = employeeService.getEmployeeVersion(employeeId);
+        if(currentVersion.isPresent() && versionMatches(ifMatch, currentVersion.get())){
+            return currentVersion.get();
+        }
+        throw new ObjectOptimisticLockingFailureException(Employee.class, employeeId);
+    }
+
+    private EmployeeJsonCache.Entry encodeEmployee(Long employeeId){
+        Optional<Employee> employee = employeeService.getEmployeeById(employeeId);
+        if(employee.isEmpty()){
+            return null;
+        }
+        try {
+            return new EmployeeJsonCache.Entry(etag(employee.get().getVersion()), employeeWriter.writeValueAsBytes(employee.get()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long afterId(String after){
+        if(after == null){
+            return 0L;
+        }
+        try {
+            return EmployeeCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private int pageSize(Integer limit){
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private static String etag(Object version){
+        return "\"" + version + "\"";
+    }
+
+    // JSON keeps the bare version; CBOR and Smile append their subtype, e.g. "3-cbor"
+    private static String etag(long version, MediaType representation){
+        return MediaType.APPLICATION_JSON.equals(representation) ? etag(version) : etag(version + "-" + representation.getSubtype());
+    }
+
+    private static String stripRepresentation(String opaqueTag){
+        for (MediaType representation : BINARY_REPRESENTATIONS) {
+            String suffix = "-" + representation.getSubtype();
+            if(opaqueTag.endsWith(suffix)){
+                return opaqueTag.substring(0, opaqueTag.length() - suffix.length());
+            }
+        }
+        return opaqueTag;
+    }
+
+    // a write names the version, so the tag of any format it was read in will do
+    private static boolean versionMatches(String ifMatch, long version){
+        if(etagMatches(ifMatch, etag(version), true)){
+            return true;
+        }
+        for (MediaType representation : BINARY_REPRESENTATIONS) {
+            if(etagMatches(ifMatch, etag(version, representation), true)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the format content negotiation would choose: the most specific, highest quality accepted type that
+    // CBOR or Smile satisfies, else JSON
+    private static MediaType representation(String accept){
+        if(accept == null){
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if(type.getQualityValue() == 0){
+                continue;
+            }
+            if(type.includes(MediaType.APPLICATION_JSON)){
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType representation : BINARY_REPRESENTATIONS) {
+                if(type.includes(representation)){
+                    return representation;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // If-None-Match and If-Match carry "*" or a comma separated list of possibly weak tags. If-None-Match
+    // compares weakly; If-Match needs the strong comparison, which a weak tag never passes
+    private static boolean etagMatches(String header, String etag, boolean strong){
+        if(header == null){
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if(tag.startsWith("W/")){
+                if(strong){
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if(tag.equals("*") || tag.equals(etag)){
+                return true;
+            }
+        }
+        return false;
+    }
 }
 
 
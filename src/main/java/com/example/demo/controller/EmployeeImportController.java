@@ -0,0 +1,74 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.EmployeeImportStatus;
+import com.example.demo.service.Impl.EmployeeImportPipeline;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk CSV import. The upload is read as it arrives, so the POST answers when the import is done;
+ * meanwhile the job shows up in the list and its status reports progress and rejected rows.
+ */
+@RestController
+@RequestMapping("/api/employees/imports")
+@ConditionalOnProperty(name = "employees.import.enabled", havingValue = "true")
+public class EmployeeImportController {
+
+    // an import runs for minutes, so there is no point retrying right away
+    private static final String RETRY_AFTER_SECONDS = "30";
+
+    // resolved per request: web slice tests load every controller but not the pipeline
+    private ObjectProvider<EmployeeImportPipeline> importPipeline;
+
+    @Autowired
+    public EmployeeImportController(ObjectProvider<EmployeeImportPipeline> importPipeline) {
+        this.importPipeline = importPipeline;
+    }
+
+    // the raw request body rather than multipart, which would spool the whole file before the first row
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<EmployeeImportStatus> importEmployees(InputStream body,
+                                                                @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding) throws IOException {
+        InputStream csv = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+        EmployeeImportStatus status;
+        try {
+            status = importPipeline.getObject().importCsv(csv);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity.created(URI.create("/api/employees/imports/" + status.getId())).body(status);
+    }
+
+    @GetMapping
+    public List<EmployeeImportStatus> getImports(){
+        return importPipeline.getObject().getStatuses();
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<EmployeeImportStatus> getImport(@PathVariable("id") String id){
+        return importPipeline.getObject().getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(()->ResponseEntity.notFound().build());
+    }
+
+    // max-jobs imports are already running
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleSaturation(RejectedExecutionException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Employee;
+import com.example.demo.service.Impl.EmployeeIngestQueue;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Queued variant of EmployeeController.createEmployee. The request thread is released as soon as the
+ * employee is enqueued and the response is written when its coalesced batch commits. Registered only
+ * through IngestControllerConfig, ahead of both the async and the default handler mappings.
+ */
+@ResponseBody
+public class IngestEmployeeController {
+
+    private EmployeeIngestQueue ingestQueue;
+
+    public IngestEmployeeController(EmployeeIngestQueue ingestQueue) {
+        this.ingestQueue = ingestQueue;
+    }
+
+    @PostMapping("/api/employees")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<Employee> createEmployee(@RequestBody Employee employee){
+        return ingestQueue.submit(employee);
+    }
+
+    // the ingest queue is full: shed the request instead of buffering without bound
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleSaturation(RejectedExecutionException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, AsyncEmployeeController.RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
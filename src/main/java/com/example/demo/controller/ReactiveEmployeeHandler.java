@@ -0,0 +1,56 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Employee;
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+/**
+ * WebFlux variant of the EmployeeController read endpoints, served from the reactive server started by
+ * ReactiveEmployeeConfig.
+ */
+public class ReactiveEmployeeHandler {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    public ReactiveEmployeeHandler(ReactiveEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    public static RouterFunction<ServerResponse> routes(ReactiveEmployeeHandler handler) {
+        return RouterFunctions.route(GET("/api/employees"), handler::getAllEmployees)
+                .andRoute(GET("/api/employees/{id}"), handler::getEmployeeById);
+    }
+
+    // NDJSON is written row by row under backpressure; a plain JSON array has to be collected first,
+    // so it is only produced for clients that explicitly ask for application/json
+    public Mono<ServerResponse> getAllEmployees(ServerRequest request) {
+        List<MediaType> accept = request.headers().accept();
+        MediaType contentType = accept.contains(MediaType.APPLICATION_JSON) && !accept.contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_JSON
+                : MediaType.APPLICATION_NDJSON;
+        return ServerResponse.ok()
+                .contentType(contentType)
+                .body(employeeRepository.streamAllOrderById(), Employee.class);
+    }
+
+    public Mono<ServerResponse> getEmployeeById(ServerRequest request) {
+        long employeeId;
+        try {
+            employeeId = Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return employeeRepository.findById(employeeId)
+                .flatMap(employee -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(employee))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+}
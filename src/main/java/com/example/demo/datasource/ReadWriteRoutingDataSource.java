@@ -0,0 +1,84 @@
+package com.example.demo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary:
+ * read-write transactions, work outside a transaction (schema updates, the ingest flusher), requests
+ * pinned to the primary by ReadYourWritesFilter, and loads of ids in RecentlyWrittenIds, which
+ * EmployeeServiceImpl runs through onPrimary. The read-only flag is only known once the transaction
+ * has begun, so this must sit behind a LazyConnectionDataSourceProxy.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static void pinToPrimary() {
+        pinnedToPrimary.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        pinnedToPrimary.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return pinnedToPrimary.get() != null;
+    }
+
+    // runs work on the primary, whatever its transactions declare; must be entered before the transaction
+    // fetches its connection
+    public static <T> T onPrimary(Supplier<T> work) {
+        if(isPinnedToPrimary()){
+            return work.get();
+        }
+        pinToPrimary();
+        try {
+            return work.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    // carries the calling thread's pin over to a task handed to another thread
+    public static Runnable propagatePin(Runnable task) {
+        if(!isPinnedToPrimary()){
+            return task;
+        }
+        return () -> {
+            pinToPrimary();
+            try {
+                task.run();
+            } finally {
+                unpin();
+            }
+        };
+    }
+
+    public static Route currentRoute() {
+        if(TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !isPinnedToPrimary()){
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pins a client to the primary for a while after it writes, so it does not read its own change back
+ * from a replica that has not applied it yet. Any unsafe request (POST, PUT, PATCH, DELETE) sets a
+ * cookie holding the end of the window; requests presenting an unexpired one read from the primary.
+ * Clients that drop cookies still get primary reads inside the writing request itself. A zero window
+ * turns the filter off.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "employees-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if(window.isZero()){
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if(write){
+            // set before the chain runs: once the body is written the response is committed
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.getSeconds()));
+            response.addCookie(cookie);
+        }
+        if(!write && !pinnedUntilAfter(request, now)){
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.unpin();
+        }
+    }
+
+    private static boolean pinnedUntilAfter(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if(cookies == null){
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if(COOKIE_NAME.equals(cookie.getName())){
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Ids this instance wrote within the read-your-writes window. A write clears the caches for its id
+ * after it commits; loading that id again from a replica that is still behind would put the old row
+ * straight back for the whole TTL, so EmployeeServiceImpl loads these ids from the primary and every
+ * other id from the replica. Writes made on other instances are not tracked, just as their cache
+ * evictions do not reach this one.
+ */
+public class RecentlyWrittenIds {
+
+    private final Cache<Long, Boolean> ids;
+
+    public RecentlyWrittenIds(Duration window) {
+        this.ids = Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    public void add(long id) {
+        ids.put(id, Boolean.TRUE);
+    }
+
+    public boolean contains(long id) {
+        return ids.getIfPresent(id) != null;
+    }
+}
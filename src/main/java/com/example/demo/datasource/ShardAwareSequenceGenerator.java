@@ -0,0 +1,64 @@
+package com.example.demo.datasource;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * SequenceStyleGenerator that keeps ids on the shard they are generated for. Every shard has its own
+ * sequence, and a value v drawn on shard s becomes v * N + s, so id mod N names the row's shard and
+ * ids never collide across shards. Each shard gets its own optimizer, since a pooled block fetched
+ * from one shard's sequence must not be handed out on another. With one shard (the setting
+ * employees.sharding.shards absent) it behaves exactly like SequenceStyleGenerator.
+ */
+public class ShardAwareSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String SHARDS_SETTING = "employees.sharding.shards";
+
+    private int shardCount = 1;
+
+    private Optimizer[] shardOptimizers;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        String shards = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(SHARDS_SETTING, StandardConverters.STRING, "1");
+        shardCount = Integer.parseInt(shards);
+        if(shardCount > 1){
+            int incrementSize = determineIncrementSize(params);
+            String strategy = determineOptimizationStrategy(params, incrementSize);
+            shardOptimizers = new Optimizer[shardCount];
+            for (int shard = 0; shard < shardCount; shard++) {
+                shardOptimizers[shard] = OptimizerFactory.buildOptimizer(strategy, type.getReturnedClass(),
+                        determineAdjustedIncrementSize(strategy, incrementSize), determineInitialValue(params));
+            }
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        if(shardCount == 1){
+            return super.generate(session, object);
+        }
+        int shard = ShardRoutingDataSource.currentShard();
+        long value = ((Number) shardOptimizers[shard].generate(getDatabaseStructure().buildCallback(session))).longValue();
+        return value * shardCount + shard;
+    }
+
+    // an id built in SQL would not carry the shard
+    @Override
+    public boolean supportsBulkInsertionIdentifierGeneration() {
+        return shardCount == 1 && super.supportsBulkInsertionIdentifierGeneration();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends each connection to the shard the calling thread is working on. Rows live on shard
+ * id mod N, which ShardAwareSequenceGenerator guarantees for new ids. Work outside onShard (schema
+ * management at startup, for one) runs on shard 0. A transaction keeps the connection it started
+ * with, so the shard must be chosen before its first statement; this sits behind a
+ * LazyConnectionDataSourceProxy for that reason.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+
+    private final List<? extends DataSource> shards;
+
+    private final int shardCount;
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        this.shardCount = shards.size();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public static int shardOf(long id, int shardCount) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    public static <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = currentShard.get();
+        currentShard.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if(previous == null){
+                currentShard.remove();
+            } else {
+                currentShard.set(previous);
+            }
+        }
+    }
+
+    public static boolean isOnShard() {
+        return currentShard.get() != null;
+    }
+
+    public static int currentShard() {
+        Integer shard = currentShard.get();
+        return shard == null ? 0 : shard;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+
+    // the shard pools are not beans of their own
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if(shard instanceof AutoCloseable){
+                ((AutoCloseable) shard).close();
+            }
+        }
+    }
+}
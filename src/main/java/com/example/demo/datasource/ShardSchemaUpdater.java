@@ -0,0 +1,51 @@
+package com.example.demo.datasource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumSet;
+
+/**
+ * Brings shards 1..N-1 up to the entity schema the way ddl-auto=update does for shard 0, which is the
+ * only one Hibernate's own schema management sees. Registered as an Integrator to get hold of the
+ * mapping metadata; update() runs once the EntityManagerFactory is built.
+ */
+public class ShardSchemaUpdater implements Integrator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchemaUpdater.class);
+
+    private volatile Metadata metadata;
+
+    private volatile SessionFactoryServiceRegistry serviceRegistry;
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = metadata;
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.serviceRegistry = null;
+    }
+
+    public void update(int shardCount) {
+        if(metadata == null){
+            throw new IllegalStateException("Hibernate metadata is not available yet");
+        }
+        for (int shard = 1; shard < shardCount; shard++) {
+            ShardRoutingDataSource.onShard(shard, () -> {
+                new SchemaUpdate().setHaltOnError(true).execute(EnumSet.of(TargetType.DATABASE), metadata, serviceRegistry);
+                return null;
+            });
+            log.info("Schema updated on shard {}", shard);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeBatch {
+
+    // in the order the ids were requested, each id at most once
+    private List<Employee> employees;
+
+    private List<Long> missingIds;
+
+}
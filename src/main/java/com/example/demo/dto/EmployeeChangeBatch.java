@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.EmployeeChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeChangeBatch {
+
+    // in seq order
+    private List<EmployeeChange> changes;
+
+    // pass as after to get the next batch
+    private long lastSeq;
+
+    // the newest seq when the batch was read; lastSeq below it means more are waiting
+    private long headSeq;
+
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeDeleteResult {
+
+    // rows actually removed; ids that did not exist or repeat are not counted
+    private int deleted;
+
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeImportError {
+
+    // 1-based data row, not counting the header
+    private long row;
+
+    // null when the row had no usable email
+    private String email;
+
+    private String message;
+
+}
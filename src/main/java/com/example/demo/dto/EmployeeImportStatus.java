@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeImportStatus {
+
+    private String id;
+
+    // RUNNING, COMPLETED or FAILED; a failed import keeps the rows written before it stopped
+    private String state;
+
+    private long rowsRead;
+
+    private long imported;
+
+    private long rejected;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    // why a FAILED import stopped
+    private String failure;
+
+    // up to employees.import.max-errors rejected rows, sorted by row; rejected counts all of them
+    private List<EmployeeImportError> errors;
+
+}
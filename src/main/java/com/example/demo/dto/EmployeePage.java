@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeePage {
+
+    private List<Employee> employees;
+
+    // null when there are no more rows after this page
+    private String nextCursor;
+
+}
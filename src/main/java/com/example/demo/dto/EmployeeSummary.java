@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// built by JPQL constructor expressions in EmployeeRepository; never a managed entity
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSummary {
+
+    private long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+}
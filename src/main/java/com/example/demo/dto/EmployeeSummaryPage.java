@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSummaryPage {
+
+    private List<EmployeeSummary> employees;
+
+    // null when there are no more rows after this page
+    private String nextCursor;
+
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+// interface projection for native queries, which cannot use constructor expressions;
+// column aliases in the query must match the getter names
+public interface EmployeeSummaryView {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+}
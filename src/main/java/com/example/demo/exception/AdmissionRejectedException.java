@@ -0,0 +1,24 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// a request shed before it reached the database; the status and Retry-After go out as is
+public class AdmissionRejectedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, String reason, long retryAfterSeconds){
+        super(status, reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders(){
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+
+}
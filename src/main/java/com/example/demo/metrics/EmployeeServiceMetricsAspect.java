@@ -0,0 +1,50 @@
+package com.example.demo.metrics;
+
+import com.example.demo.datasource.ShardRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every EmployeeService call as employees.service{method,exception}. Repository calls are
+ * already timed by Spring Boot as spring.data.repository.invocations.
+ */
+@Aspect
+@Component
+public class EmployeeServiceMetricsAspect {
+
+    public static final String METRIC_NAME = "employees.service";
+
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public EmployeeServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.example.demo.service.EmployeeService+.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        // ShardedEmployeeService's per-shard calls are part of the call already being timed
+        if(ShardRoutingDataSource.isOnShard()){
+            return joinPoint.proceed();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("EmployeeService method latency")
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
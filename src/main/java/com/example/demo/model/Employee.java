@@ -1,6 +1,12 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -8,13 +14,42 @@ import javax.persistence.*;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name = "employees")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = Employee.NAME_INDEX, columnList = "lastName, firstName"))
 public class Employee {
 
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
+    public static final String CACHE_REGION = "employees";
+
+    // serves name searches on lastName alone or lastName and firstName
+    public static final String NAME_INDEX = "idx_employees_last_first";
+
+    // properties a partial update (PATCH) may change
+    public static final String FIRST_NAME = "firstName";
+    public static final String LAST_NAME = "lastName";
+    public static final String EMAIL = "email";
+
+    // pooled-lo hands out 50 ids per sequence round trip and, unlike IDENTITY, keeps insert batching on;
+    // it reuses hibernate_sequence so ids continue from the old AUTO generator. With sharding on, each
+    // shard draws from its own sequence and the id encodes the shard
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @org.springframework.data.annotation.Id // identifier for ReactiveEmployeeRepository
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_id")
+    @GenericGenerator(
+            name = "employee_id",
+            strategy = "com.example.demo.datasource.ShardAwareSequenceGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private long id;
 
     @Column(name = "firstName",nullable = false)
@@ -26,4 +61,10 @@ public class Employee {
     @Column(name = "email",nullable = false)
     private String email;
 
+    // bumped by Hibernate on every update; the source of ETags and the If-Match check.
+    // Clients never set it, the controller takes it from request headers
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
 }
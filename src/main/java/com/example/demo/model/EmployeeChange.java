@@ -0,0 +1,65 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.*;
+
+import javax.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Outbox row for the change feed, written in the same transaction as the employee change it describes.
+ * Rows get their feed position (seq) only after they commit, from EmployeeChangeLog's sequencer, so a
+ * consumer reading past a position never misses a transaction that committed late.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_changes",
+        uniqueConstraints = @UniqueConstraint(name = EmployeeChange.SEQ_UNIQUE_CONSTRAINT, columnNames = "seq"))
+public class EmployeeChange {
+
+    public static final String SEQ_UNIQUE_CONSTRAINT = "uk_employee_changes_seq";
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    // the order the sequencer numbers committed rows in; consumers see seq. Drawn one at a time, after the
+    // write has locked the employee row: two changes of one employee then get ids in commit order even when
+    // written on different instances, which blocks of pooled ids would not guarantee
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_change_id")
+    @SequenceGenerator(name = "employee_change_id", sequenceName = "employee_changes_id_seq", allocationSize = 1)
+    @JsonIgnore
+    private long id;
+
+    // null until sequenced, then gap-free and increasing in the order the changes became visible
+    @Column(name = "seq")
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "changeType", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "employeeId", nullable = false)
+    private long employeeId;
+
+    // the employee as written; null for DELETED
+    @Column(name = "firstName")
+    private String firstName;
+
+    @Column(name = "lastName")
+    private String lastName;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "changedAt", nullable = false)
+    private Instant changedAt;
+
+}
@@ -0,0 +1,32 @@
+package com.example.demo.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * The single row behind the list ETag. Every write to the employees table increments it in the same
+ * transaction, so it moves with the table whichever instance made the write, and a replica holds the
+ * version that matches its copy of the rows.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "employees_version")
+public class EmployeesVersion {
+
+    public static final int ROW_ID = 1;
+
+    @Id
+    private int id;
+
+    // when the row was created, so tags handed out before the table was recreated never match again
+    @Column(name = "epoch", nullable = false)
+    private long epoch;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+}
@@ -0,0 +1,44 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange,Long> {
+
+    // committed rows the sequencer has not numbered yet, oldest first
+    @Query("select c from EmployeeChange c where c.seq is null order by c.id asc")
+    List<EmployeeChange> findUnsequenced(Pageable pageable);
+
+    @Query("select coalesce(max(c.seq), 0) from EmployeeChange c")
+    long findLastSeq();
+
+    @Query("select coalesce(min(c.seq), 0) from EmployeeChange c")
+    long findFirstSeq();
+
+    // a keyset page over the unique index on seq
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    @Query("select c from EmployeeChange c where c.seq > :afterSeq order by c.seq asc")
+    List<EmployeeChange> findChangesAfter(@Param("afterSeq") long afterSeq, Pageable pageable);
+
+    // the first numbered change still inside retention; changedAt is taken before commit, so later seqs
+    // may still carry older timestamps
+    @Query("select min(c.seq) from EmployeeChange c where c.seq is not null and c.changedAt >= :cutoff")
+    Optional<Long> findFirstSeqSince(@Param("cutoff") Instant cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmployeeChange c where c.seq <= :seq")
+    int deleteThroughSeq(@Param("seq") long seq);
+}
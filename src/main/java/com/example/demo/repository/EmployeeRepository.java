@@ -1,28 +1,149 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryView;
 import com.example.demo.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface EmployeeRepository extends JpaRepository<Employee,Long> {
 
+    String EXPORT_FETCH_SIZE = "500";
+
+    String QUERY_CACHE_REGION = "employee-queries";
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<Employee> findByEmail(String email);
 
+    List<Employee> findByEmailIn(Collection<String> emails);
+
+    // the single-result name queries below fail as soon as two employees share a name;
+    // findSummariesByName is the multi-result replacement
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
     @Query("select e from Employee e where e.firstName =?1 and e.lastName =?2")
     Employee findByJPQL(String firstName,String lastName);
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
     @Query("select e from Employee e where e.firstName=:firstName and e.lastName=:lastName")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
     @Query(value="select * from Employee e where e.firstName =?1 and e.lastName =?2",nativeQuery=true)
     Employee findByNativeSQL(String firstName,String lastName);
 
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
     @Query(value="select * from Employee e where e.firstName=:firstName and e.lastName=:lastName",nativeQuery=true)
     Employee findByNativeSQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
+
+    // projections: unmanaged results with only the selected columns, so there is no persistence context
+    // registration and no dirty-check snapshot for read-only lookups
+    // name searches are keyset pages over id within Employee.NAME_INDEX
+    @Query("select new com.example.demo.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) " +
+            "from Employee e where e.lastName = :lastName and e.firstName = :firstName and e.id > :afterId order by e.id asc")
+    List<EmployeeSummary> findSummariesByName(@Param("firstName") String firstName, @Param("lastName") String lastName,
+                                              @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) " +
+            "from Employee e where e.lastName = :lastName and e.id > :afterId order by e.id asc")
+    List<EmployeeSummary> findSummariesByLastName(@Param("lastName") String lastName, @Param("afterId") long afterId,
+                                                  Pageable pageable);
+
+    @Query("select new com.example.demo.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) " +
+            "from Employee e where e.email = :email")
+    Optional<EmployeeSummary> findSummaryByEmail(@Param("email") String email);
+
+    @Query(value="select e.id as id, e.first_name as firstName, e.last_name as lastName, e.email as email " +
+            "from employees e where e.first_name=:firstName and e.last_name=:lastName order by e.id",nativeQuery=true)
+    List<EmployeeSummaryView> findSummariesByNativeSQL(@Param("firstName") String firstName,@Param("lastName") String lastName);
+
+    // typeahead fallback when the in-memory suggest index is disabled; a prefix range on Employee.NAME_INDEX.
+    // The caller escapes \, % and _ in the prefix with a backslash. The escape character is bound rather
+    // than written as a '\' literal, which MySQL would read as an unterminated string
+    @Query("select new com.example.demo.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) " +
+            "from Employee e where e.lastName like :prefix% escape ?#{escapeCharacter()} order by e.lastName asc, e.firstName asc")
+    List<EmployeeSummary> findSummariesByLastNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    // answers conditional requests from the primary key alone, without hydrating the entity
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    // single-statement partial updates: no SELECT, no entity in the persistence context. A negative
+    // expectedVersion skips the optimistic check. Bulk statements invalidate the entity's L2 region
+    @Transactional
+    @Modifying
+    @Query("update Employee e set e.firstName = :value, e.version = e.version + 1 " +
+            "where e.id = :id and (:expectedVersion < 0L or e.version = :expectedVersion)")
+    int updateFirstName(@Param("id") long id, @Param("value") String value, @Param("expectedVersion") long expectedVersion);
+
+    @Transactional
+    @Modifying
+    @Query("update Employee e set e.lastName = :value, e.version = e.version + 1 " +
+            "where e.id = :id and (:expectedVersion < 0L or e.version = :expectedVersion)")
+    int updateLastName(@Param("id") long id, @Param("value") String value, @Param("expectedVersion") long expectedVersion);
+
+    @Transactional
+    @Modifying
+    @Query("update Employee e set e.email = :value, e.version = e.version + 1 " +
+            "where e.id = :id and (:expectedVersion < 0L or e.version = :expectedVersion)")
+    int updateEmail(@Param("id") long id, @Param("value") String value, @Param("expectedVersion") long expectedVersion);
+
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // rows on this shard that id mod shardCount places on another one; a scan, for the startup check
+    @Query("select e.id from Employee e where mod(e.id, :shardCount) <> :shard order by e.id asc")
+    List<Long> findIdsOffShard(@Param("shardCount") int shardCount, @Param("shard") int shard, Pageable pageable);
+
+    // one DELETE for the whole list, unlike deleteById/deleteAllById which load and remove row by row.
+    // Callers bound the list size
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // keyset page over the primary key: range scan on id, no OFFSET and no count query. Pages may come
+    // from a replica that is behind, so they never fill the second-level cache
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_MODE, value = "GET"))
+    @Query("select e from Employee e where e.id > :afterId order by e.id asc")
+    List<Employee> findPageAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    // forward-only scroll for exports; must be consumed inside a transaction and closed. Like pages, it
+    // may read a replica that is behind and leaves the second-level cache alone
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select e from Employee e order by e.id asc")
+    Stream<Employee> streamAllOrderById();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new com.example.demo.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) from Employee e")
+    Stream<EmployeeSummary> streamAllSummaries();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select e.email from Employee e")
+    Stream<String> streamAllEmails();
 }
 
 
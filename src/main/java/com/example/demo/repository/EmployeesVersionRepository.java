@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.EmployeesVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface EmployeesVersionRepository extends JpaRepository<EmployeesVersion,Integer> {
+
+    // in place, so concurrent writers queue on the row lock instead of losing increments
+    @Modifying
+    @Query("update EmployeesVersion v set v.version = v.version + 1 where v.id = :id")
+    int increment(@Param("id") int id);
+}
@@ -0,0 +1,19 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Employee;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * R2DBC counterpart of EmployeeRepository over the same Employee mapping. Kept out of repository scanning,
+ * which would hand it to JPA; ReactiveEmployeeServer creates it when employees.reactive.enabled=true.
+ */
+@NoRepositoryBean
+public interface ReactiveEmployeeRepository extends ReactiveCrudRepository<Employee,Long> {
+
+    // rows are emitted as the driver reads them, so demand from the subscriber paces the query
+    @Query("select * from employees order by id")
+    Flux<Employee> streamAllOrderById();
+}
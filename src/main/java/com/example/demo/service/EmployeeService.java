@@ -1,14 +1,37 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryPage;
 import com.example.demo.model.Employee;
+import org.springframework.lang.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
+    List<Employee> saveEmployees(List<Employee> employees);
     List<Employee> getAllEmployees();
+    EmployeePage getEmployeePage(long afterId, int limit);
+    long exportEmployees(Consumer<Employee> consumer);
     Optional<Employee> getEmployeeById(long id);
+    Optional<Long> getEmployeeVersion(long id);
+    Optional<Long> getCachedEmployeeVersion(long id);
+    String getEmployeesVersion();
+    EmployeeBatch getEmployeesByIds(Collection<Long> ids);
+    EmployeeSummaryPage searchEmployees(String firstName, String lastName, long afterId, int limit);
+    Optional<EmployeeSummary> getEmployeeSummaryByEmail(String email);
+    Set<String> getExistingEmails(Collection<String> emails);
+    List<EmployeeSummary> suggestEmployees(String query, int limit);
     Employee updateEmployee(Employee updatedEmployee);
-    void deleteEmployee(long id);
+    Optional<Employee> patchEmployee(long id, Map<String, String> changes, @Nullable Long expectedVersion);
+    boolean patchEmployeeField(long id, String field, String value, @Nullable Long expectedVersion);
+    boolean deleteEmployee(long id);
+    int deleteEmployees(Collection<Long> ids);
 }
@@ -0,0 +1,115 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Lock-free Bloom filter of every email already stored. A negative answer is exact, so creates
+ * for new emails can skip the duplicate lookup; a positive answer only means "maybe".
+ * Deleted emails are never removed and simply cost one extra lookup if they come back.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.email-filter.enabled", havingValue = "true")
+public class EmailBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    public EmailBloomFilter(EmployeeRepository employeeRepository,
+                            @Value("${employees.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${employees.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(expectedInsertions, falsePositiveRate);
+        this.employeeRepository = employeeRepository;
+    }
+
+    public EmailBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (m + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long count = 0;
+        try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+            for (String email : (Iterable<String>) emails::iterator) {
+                put(email);
+                count++;
+            }
+        }
+        log.info("Email filter loaded with {} emails ({} bits, {} hashes)", count, numBits, numHashes);
+    }
+
+    public void put(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % numBits;
+    }
+
+    // emails compare case-insensitively in MySQL, so normalise before hashing
+    private static long hash(String email) {
+        byte[] bytes = email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.model.Employee;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Read-through cache for employees by id. Caffeine's W-TinyLFU policy keeps frequently read
+ * employees resident; misses are cached for a much shorter time so bursts of lookups for
+ * unknown ids do not reach the database. Callers always get a copy, never the cached instance.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeCache implements MeterBinder {
+
+    private final Cache<Long, Optional<Employee>> cache;
+
+    @Autowired
+    public EmployeeCache(@Value("${employees.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${employees.cache.ttl:10m}") Duration ttl,
+                         @Value("${employees.cache.negative-ttl:5s}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new FoundOrMissingExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Employee> get(long id, LongFunction<Optional<Employee>> loader) {
+        return cache.get(id, key -> loader.apply(key).map(employee -> employee.toBuilder().build()))
+                .map(employee -> employee.toBuilder().build());
+    }
+
+    // one bulk load for all the misses; ids the loader does not return are cached as missing
+    public Map<Long, Employee> getAll(Collection<Long> ids, Function<Collection<Long>, List<Employee>> loader) {
+        Map<Long, Optional<Employee>> cached = cache.getAll(ids, misses -> {
+            Map<Long, Optional<Employee>> loaded = new HashMap<>();
+            misses.forEach(id -> loaded.put(id, Optional.empty()));
+            for (Employee employee : loader.apply(loaded.keySet())) {
+                loaded.put(employee.getId(), Optional.of(employee.toBuilder().build()));
+            }
+            return loaded;
+        });
+
+        Map<Long, Employee> found = new HashMap<>(cached.size());
+        cached.forEach((id, employee) -> employee.ifPresent(e -> found.put(id, e.toBuilder().build())));
+        return found;
+    }
+
+    // the version of an employee cached as found; a miss loads nothing
+    public Optional<Long> getVersionIfPresent(long id) {
+        Optional<Employee> cached = cache.getIfPresent(id);
+        return cached == null ? Optional.empty() : cached.map(Employee::getVersion);
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, "employeesById", Tags.empty()).bindTo(registry);
+    }
+
+    private static final class FoundOrMissingExpiry implements Expiry<Long, Optional<Employee>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private FoundOrMissingExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Long id, Optional<Employee> employee, long currentTime) {
+            return employee.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, Optional<Employee> employee, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(id, employee, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, Optional<Employee> employee, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
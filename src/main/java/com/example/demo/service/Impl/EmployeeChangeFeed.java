@@ -0,0 +1,235 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.model.EmployeeChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the change log to Server-Sent Events subscribers. Each subscriber has a cursor; whenever the
+ * log's head is past it, one dispatcher task sends the missing changes in batches, one event per batch
+ * with the batch's last seq as event id, so a reconnect with Last-Event-ID resumes where it stopped.
+ * Subscribers that are caught up share the read of the next batch.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.changes.enabled", havingValue = "true")
+public class EmployeeChangeFeed implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeFeed.class);
+
+    public static final String CHANGES_EVENT = "changes";
+
+    public static final String HEAD_EVENT = "head";
+
+    private final EmployeeChangeLog changeLog;
+
+    private final int batchSize;
+
+    private final int maxSubscribers;
+
+    private final long timeoutMillis;
+
+    private final long heartbeatMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService dispatcher;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("employee-feed-tick-"));
+
+    // the last batch read from the log, reused by every subscriber at the same cursor
+    private volatile Batch lastBatch;
+
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+
+    @Autowired
+    public EmployeeChangeFeed(EmployeeChangeLog changeLog, MeterRegistry meterRegistry,
+                              @Value("${employees.changes.batch-size:500}") int batchSize,
+                              @Value("${employees.changes.max-subscribers:100}") int maxSubscribers,
+                              @Value("${employees.changes.dispatch-threads:4}") int dispatchThreads,
+                              @Value("${employees.changes.timeout:30m}") Duration timeout,
+                              @Value("${employees.changes.heartbeat:15s}") Duration heartbeat,
+                              @Value("${employees.changes.sequence-interval:200ms}") Duration pollInterval) {
+        this.changeLog = changeLog;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatMillis = heartbeat.toMillis();
+        this.dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), new CustomizableThreadFactory("employee-feed-"));
+
+        Gauge.builder(EmployeeChangeLog.METRIC_NAME + ".subscribers", subscribers, Set::size)
+                .description("Open change feed streams")
+                .register(meterRegistry);
+
+        // polls the in-memory head only; a subscriber costs a query when there is something to send
+        long pollMillis = Math.max(1, pollInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::tick, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getHead() {
+        return changeLog.getHead();
+    }
+
+    // false when changes after this seq have been purged, so resuming from it would skip some
+    public boolean isRetained(long afterSeq) {
+        return afterSeq >= changeLog.getPurgedThrough();
+    }
+
+    public List<EmployeeChange> getChangesAfter(long afterSeq, int limit) {
+        return limit == batchSize ? read(afterSeq) : changeLog.getChangesAfter(afterSeq, limit);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Opens a stream that starts with a head event and then sends every change after afterSeq.
+     *
+     * @throws RejectedExecutionException if max-subscribers streams are open
+     */
+    public SseEmitter subscribe(long afterSeq) {
+        if(subscribers.size() >= maxSubscribers){
+            throw new RejectedExecutionException("Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, afterSeq);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        try {
+            // the resume point, even if nothing changes for a while
+            emitter.send(SseEmitter.event().name(HEAD_EVENT).id(Long.toString(afterSeq)).data(changeLog.getHead()));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void tick() {
+        long head = changeLog.getHead();
+        for (Subscriber subscriber : subscribers) {
+            if(subscriber.cursor < head){
+                schedule(subscriber);
+            }
+        }
+        if(System.currentTimeMillis() - lastHeartbeat >= heartbeatMillis){
+            lastHeartbeat = System.currentTimeMillis();
+            // keeps proxies from closing an idle stream and finds clients that went away
+            subscribers.forEach(subscriber -> dispatcher.execute(() -> send(subscriber, SseEmitter.event().comment(""))));
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if(subscriber.scheduled.compareAndSet(false, true)){
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscribers.contains(subscriber) && subscriber.cursor < changeLog.getHead()) {
+                List<EmployeeChange> changes = read(subscriber.cursor);
+                // a replica may not have the newest rows yet; the next tick tries again
+                if(changes.isEmpty()){
+                    break;
+                }
+                long last = changes.get(changes.size() - 1).getSeq();
+                if(!send(subscriber, SseEmitter.event().name(CHANGES_EVENT).id(Long.toString(last)).data(changes, MediaType.APPLICATION_JSON))){
+                    break;
+                }
+                subscriber.cursor = last;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Change feed dispatch failed: {}", e.toString());
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private List<EmployeeChange> read(long afterSeq) {
+        Batch batch = lastBatch;
+        // seqs have no gaps, so even a batch that has grown since is a correct prefix; an empty one is not
+        // reused, it may only mean the replica was behind
+        if(batch != null && batch.afterSeq == afterSeq && !batch.changes.isEmpty()){
+            return batch.changes;
+        }
+        List<EmployeeChange> changes = changeLog.getChangesAfter(afterSeq, batchSize);
+        lastBatch = new Batch(afterSeq, changes);
+        return changes;
+    }
+
+    // one sender per emitter at a time; false once the client is gone
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        synchronized (subscriber) {
+            try {
+                subscriber.emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                return false;
+            }
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private volatile long cursor;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+
+    private static final class Batch {
+
+        private final long afterSeq;
+
+        private final List<EmployeeChange> changes;
+
+        private Batch(long afterSeq, List<EmployeeChange> changes) {
+            this.afterSeq = afterSeq;
+            this.changes = changes;
+        }
+    }
+}
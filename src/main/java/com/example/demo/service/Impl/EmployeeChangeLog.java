@@ -0,0 +1,193 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.model.Employee;
+import com.example.demo.model.EmployeeChange;
+import com.example.demo.repository.EmployeeChangeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for the change feed. EmployeeServiceImpl records every write here inside its
+ * own transaction, so a change is in the outbox exactly when it is in the employees table. A single
+ * sequencer thread then numbers committed rows in the order it finds them; numbering after commit is
+ * what lets consumers resume from a seq without losing a transaction that committed after a later one.
+ * Several instances may share the table: the unique index on seq lets only one of them number a row.
+ * Whichever instance purges, the others learn what is gone from the table on their next pass.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.changes.enabled", havingValue = "true")
+public class EmployeeChangeLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeLog.class);
+
+    public static final String METRIC_NAME = "employees.changes";
+
+    private final EmployeeChangeRepository changeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int sequenceBatchSize;
+
+    private final Duration retention;
+
+    private final ScheduledExecutorService sequencer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("employee-changes-"));
+
+    // last numbered change, and the last one purged as of the latest pass; consumers behind
+    // purgedThrough have lost changes
+    private volatile long head;
+
+    private volatile long purgedThrough;
+
+    @Autowired
+    public EmployeeChangeLog(EmployeeChangeRepository changeRepository, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${employees.sharding.enabled:false}") boolean sharded,
+                             @Value("${employees.changes.sequence-interval:200ms}") Duration sequenceInterval,
+                             @Value("${employees.changes.sequence-batch-size:1000}") int sequenceBatchSize,
+                             @Value("${employees.changes.retention:7d}") Duration retention) {
+        // each shard would hold its own outbox, and there is no single order across them
+        if(sharded){
+            throw new IllegalStateException("employees.changes cannot be combined with employees.sharding");
+        }
+        this.changeRepository = changeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sequenceBatchSize = Math.max(1, sequenceBatchSize);
+        this.retention = retention;
+
+        long[] bounds = transactionTemplate.execute(status -> new long[]{changeRepository.findFirstSeq(), changeRepository.findLastSeq()});
+        this.head = bounds[1];
+        this.purgedThrough = bounds[0] > 0 ? bounds[0] - 1 : bounds[1];
+
+        Gauge.builder(METRIC_NAME + ".head", this, EmployeeChangeLog::getHead)
+                .description("Seq of the last change published to the feed")
+                .register(meterRegistry);
+
+        long intervalMillis = Math.max(1, sequenceInterval.toMillis());
+        sequencer.scheduleWithFixedDelay(this::sequence, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        long purgeMillis = Math.max(intervalMillis, Math.min(retention.toMillis(), TimeUnit.HOURS.toMillis(1)));
+        sequencer.scheduleWithFixedDelay(this::purge, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSaved(Employee employee, EmployeeChange.Type type) {
+        changeRepository.save(change(employee, type));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<Employee> employees) {
+        List<EmployeeChange> changes = new ArrayList<>(employees.size());
+        employees.forEach(employee -> changes.add(change(employee, EmployeeChange.Type.CREATED)));
+        changeRepository.saveAll(changes);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Collection<Long> ids) {
+        Instant now = Instant.now();
+        List<EmployeeChange> changes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            changes.add(EmployeeChange.builder()
+                    .type(EmployeeChange.Type.DELETED)
+                    .employeeId(id)
+                    .changedAt(now)
+                    .build());
+        }
+        changeRepository.saveAll(changes);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EmployeeChange> getChangesAfter(long afterSeq, int limit) {
+        return changeRepository.findChangesAfter(afterSeq, PageRequest.of(0, limit));
+    }
+
+    public long getHead() {
+        return head;
+    }
+
+    public long getPurgedThrough() {
+        return purgedThrough;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        sequencer.shutdown();
+        sequencer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void sequence() {
+        try {
+            int numbered;
+            do {
+                long[] result = transactionTemplate.execute(status -> {
+                    List<EmployeeChange> pending = changeRepository.findUnsequenced(PageRequest.of(0, sequenceBatchSize));
+                    // read every time: another instance may have numbered or purged rows since the last pass
+                    long first = changeRepository.findFirstSeq();
+                    long seq = changeRepository.findLastSeq();
+                    long last = seq;
+                    for (EmployeeChange change : pending) {
+                        change.setSeq(++seq);
+                    }
+                    return new long[]{pending.size(), seq, first > 0 ? first - 1 : last};
+                });
+                numbered = (int) result[0];
+                head = Math.max(head, result[1]);
+                purgedThrough = Math.max(purgedThrough, result[2]);
+            } while (numbered == sequenceBatchSize);
+        } catch (RuntimeException e) {
+            // usually another instance numbering the same rows; they are picked up on the next pass
+            log.debug("Employee change sequencing failed: {}", e.toString());
+        }
+    }
+
+    private void purge() {
+        try {
+            // a prefix in seq order, so a change numbered late with an old timestamp is not deleted while
+            // earlier seqs stay; the last change stays too, it is where the next seq is counted from
+            long last = changeRepository.findLastSeq();
+            long through = changeRepository.findFirstSeqSince(Instant.now().minus(retention))
+                    .map(seq -> seq - 1)
+                    .orElse(last);
+            through = Math.min(through, last - 1);
+            if(through > purgedThrough){
+                int purged = changeRepository.deleteThroughSeq(through);
+                purgedThrough = through;
+                log.info("Purged {} employee changes through seq {}", purged, through);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Employee change purge failed", e);
+        }
+    }
+
+    private static EmployeeChange change(Employee employee, EmployeeChange.Type type) {
+        return EmployeeChange.builder()
+                .type(type)
+                .employeeId(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .changedAt(Instant.now())
+                .build();
+    }
+}
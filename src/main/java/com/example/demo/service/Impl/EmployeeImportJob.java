@@ -0,0 +1,97 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.dto.EmployeeImportError;
+import com.example.demo.dto.EmployeeImportStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one CSV import, updated by the pipeline stages and read by status requests. Only the
+ * counters grow with the file; rejected rows are kept up to maxErrors and counted after that.
+ */
+final class EmployeeImportJob {
+
+    enum State { RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+
+    private final int maxErrors;
+
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private final AtomicLong imported = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final Queue<EmployeeImportError> errors = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger errorSlots;
+
+    private volatile State state = State.RUNNING;
+
+    private volatile Instant finishedAt;
+
+    private volatile String failure;
+
+    EmployeeImportJob(String id, int maxErrors) {
+        this.id = id;
+        this.maxErrors = maxErrors;
+        this.errorSlots = new AtomicInteger(maxErrors);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int rows) {
+        imported.addAndGet(rows);
+    }
+
+    void reject(long row, String email, String message) {
+        rejected.incrementAndGet();
+        if(errorSlots.getAndDecrement() > 0){
+            errors.add(new EmployeeImportError(row, email, message));
+        }
+    }
+
+    void complete() {
+        finish(State.COMPLETED, null);
+    }
+
+    void fail(String reason) {
+        finish(State.FAILED, reason);
+    }
+
+    private void finish(State finalState, String reason) {
+        failure = reason;
+        finishedAt = Instant.now();
+        // written last, so a reader that sees the final state also sees the rest
+        state = finalState;
+    }
+
+    EmployeeImportStatus toStatus() {
+        State current = state;
+        List<EmployeeImportError> recorded = new ArrayList<>(Math.min(maxErrors, errors.size()));
+        recorded.addAll(errors);
+        recorded.sort(Comparator.comparingLong(EmployeeImportError::getRow));
+        return new EmployeeImportStatus(id, current.name(), rowsRead.get(), imported.get(), rejected.get(),
+                startedAt, finishedAt, failure, recorded);
+    }
+}
@@ -0,0 +1,458 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.dto.EmployeeImportStatus;
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Streams a CSV upload into the employees table without holding the file. The request thread parses
+ * and validates rows and hands batches to a dedupe stage, which drops emails that are already stored
+ * with one bulk lookup per batch; writers save what is left through saveEmployees. The queues between
+ * the stages are bounded, so a slow database slows the upload down instead of buffering it, and memory
+ * depends on batch size, queue capacity and writer count rather than on the file. An email repeated
+ * in two batches of one file is caught by the unique index when the second copy is written.
+ * <p>
+ * Every stage that talks to the database first takes a permit from one semaphore shared by all jobs,
+ * so imports never hold more than max-connections pooled connections, whatever max-jobs and writers
+ * are, and the rest of the pool stays free for the API.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.import.enabled", havingValue = "true")
+public class EmployeeImportPipeline implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportPipeline.class);
+
+    public static final String METRIC_NAME = "employees.import";
+
+    private static final long HAND_OFF_POLL_MILLIS = 100;
+
+    // the column length of every employee field
+    private static final int MAX_VALUE_LENGTH = 255;
+
+    private static final CsvMapper CSV = CsvMapper.builder()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .build();
+
+    // end of input for the next stage, compared by identity
+    private static final List<Row> END = Collections.unmodifiableList(new ArrayList<>());
+
+    private final EmployeeService employeeService;
+
+    private final int batchSize;
+
+    private final int writers;
+
+    private final int queueCapacity;
+
+    private final int maxErrors;
+
+    private final Semaphore jobSlots;
+
+    // pooled connections in use by imports, across all jobs
+    private final Semaphore connections;
+
+    // one dedupe thread and the writers per running import, so max-jobs bounds the threads
+    private final ExecutorService stageExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("employee-import-"));
+
+    private final Map<String, EmployeeImportJob> running = new ConcurrentHashMap<>();
+
+    private final Cache<String, EmployeeImportJob> finished;
+
+    private final Counter importedRows;
+
+    private final Counter rejectedRows;
+
+    private final Timer writeTimer;
+
+    @Autowired
+    public EmployeeImportPipeline(EmployeeService employeeService, MeterRegistry meterRegistry,
+                                  @Value("${employees.import.batch-size:500}") int batchSize,
+                                  @Value("${employees.import.writers:4}") int writers,
+                                  @Value("${employees.import.queue-capacity:4}") int queueCapacity,
+                                  @Value("${employees.import.max-jobs:2}") int maxJobs,
+                                  @Value("${employees.import.max-connections:4}") int maxConnections,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                  @Value("${employees.import.max-errors:1000}") int maxErrors,
+                                  @Value("${employees.import.retention:1h}") Duration retention) {
+        this.employeeService = employeeService;
+        this.batchSize = Math.max(1, batchSize);
+        this.writers = Math.max(1, writers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.maxErrors = Math.max(0, maxErrors);
+        this.jobSlots = new Semaphore(Math.max(1, maxJobs));
+        // at least one connection has to stay free for everything else
+        int connectionLimit = Math.max(1, Math.min(maxConnections, poolSize - 1));
+        if(connectionLimit < maxConnections){
+            log.warn("employees.import.max-connections={} does not fit a pool of {}, using {}", maxConnections, poolSize, connectionLimit);
+        }
+        this.connections = new Semaphore(connectionLimit);
+        this.finished = Caffeine.newBuilder().expireAfterWrite(retention).maximumSize(100).build();
+
+        this.importedRows = Counter.builder(METRIC_NAME + ".rows")
+                .tag("outcome", "imported")
+                .description("CSV rows saved as employees")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder(METRIC_NAME + ".rows")
+                .tag("outcome", "rejected")
+                .description("CSV rows refused as invalid or duplicate")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder(METRIC_NAME + ".write")
+                .description("Time to save one import batch, including one-by-one retries")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".jobs.active", running, Map::size)
+                .description("Imports currently reading an upload")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports the CSV on the calling thread and returns once every row has been written or rejected. The
+     * header names the firstName, lastName and email columns, in any order; other columns are ignored.
+     *
+     * @throws IllegalArgumentException if the header is missing or lacks a required column
+     * @throws RejectedExecutionException if max-jobs imports are already running
+     */
+    public EmployeeImportStatus importCsv(InputStream csv) throws IOException {
+        if(!jobSlots.tryAcquire()){
+            throw new RejectedExecutionException("Too many employee imports are running");
+        }
+        try {
+            MappingIterator<String[]> rows = CSV.readerFor(String[].class).readValues(csv);
+            int[] columns = readHeader(rows);
+            EmployeeImportJob job = new EmployeeImportJob(UUID.randomUUID().toString(), maxErrors);
+            running.put(job.getId(), job);
+            try {
+                run(job, rows, columns);
+            } finally {
+                finished.put(job.getId(), job);
+                running.remove(job.getId());
+            }
+            return job.toStatus();
+        } finally {
+            jobSlots.release();
+        }
+    }
+
+    public Optional<EmployeeImportStatus> getStatus(String id) {
+        EmployeeImportJob job = running.get(id);
+        if(job == null){
+            job = finished.getIfPresent(id);
+        }
+        return Optional.ofNullable(job).map(EmployeeImportJob::toStatus);
+    }
+
+    // newest first
+    public List<EmployeeImportStatus> getStatuses() {
+        Map<String, EmployeeImportJob> jobs = new LinkedHashMap<>(finished.asMap());
+        jobs.putAll(running);
+        List<EmployeeImportStatus> statuses = new ArrayList<>(jobs.size());
+        jobs.values().forEach(job -> statuses.add(job.toStatus()));
+        statuses.sort(Comparator.comparing(EmployeeImportStatus::getStartedAt).reversed());
+        return statuses;
+    }
+
+    @Override
+    public void destroy() {
+        stageExecutor.shutdownNow();
+    }
+
+    private void run(EmployeeImportJob job, MappingIterator<String[]> rows, int[] columns) {
+        BlockingQueue<List<Row>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<Row>> deduped = new ArrayBlockingQueue<>(queueCapacity);
+        List<Future<?>> writerTasks = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            writerTasks.add(stageExecutor.submit(() -> write(job, deduped)));
+        }
+        Future<?> dedupeTask = stageExecutor.submit(() -> dedupe(job, parsed, deduped, writerTasks));
+
+        String failure = null;
+        try {
+            parse(job, rows, columns, parsed, dedupeTask::isDone);
+        } catch (IOException | RuntimeException e) {
+            // malformed CSV or a dropped upload; what was already handed over is still written
+            log.warn("Employee import {} stopped reading: {}", job.getId(), e.toString());
+            failure = "Upload stopped after row " + job.getRowsRead() + ": " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Import interrupted";
+        }
+
+        try {
+            handOff(parsed, END, dedupeTask::isDone);
+            for (Future<?> writerTask : writerTasks) {
+                writerTask.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Import interrupted";
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Employee import {} failed", job.getId(), e);
+            failure = e.toString();
+        }
+
+        if(failure == null){
+            job.complete();
+        } else {
+            job.fail(failure);
+        }
+    }
+
+    private void parse(EmployeeImportJob job, MappingIterator<String[]> rows, int[] columns,
+                       BlockingQueue<List<Row>> parsed, BooleanSupplier dedupeStopped) throws IOException, InterruptedException {
+        long row = 0;
+        List<Row> batch = new ArrayList<>(batchSize);
+        while (rows.hasNextValue()) {
+            String[] values = rows.nextValue();
+            row++;
+            job.rowRead();
+            Employee employee = toEmployee(job, row, values, columns);
+            if(employee == null){
+                continue;
+            }
+            batch.add(new Row(row, employee));
+            if(batch.size() == batchSize){
+                handOff(parsed, batch, dedupeStopped);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if(!batch.isEmpty()){
+            handOff(parsed, batch, dedupeStopped);
+        }
+    }
+
+    private void dedupe(EmployeeImportJob job, BlockingQueue<List<Row>> parsed, BlockingQueue<List<Row>> deduped,
+                        List<Future<?>> writerTasks) {
+        BooleanSupplier writersStopped = () -> writerTasks.stream().allMatch(Future::isDone);
+        try {
+            for (List<Row> batch = parsed.take(); batch != END; batch = parsed.take()) {
+                List<Row> fresh = dropDuplicates(job, batch);
+                if(!fresh.isEmpty()){
+                    handOff(deduped, fresh, writersStopped);
+                }
+            }
+            for (int i = 0; i < writers; i++) {
+                handOff(deduped, END, writersStopped);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Row> dropDuplicates(EmployeeImportJob job, List<Row> batch) throws InterruptedException {
+        Map<String, Row> byEmail = new LinkedHashMap<>();
+        for (Row row : batch) {
+            String email = row.employee.getEmail();
+            if(byEmail.putIfAbsent(email, row) != null){
+                reject(job, row.number, email, "Duplicate email in the upload:" + email);
+            }
+        }
+        Set<String> existing;
+        try {
+            existing = withConnection(() -> employeeService.getExistingEmails(byEmail.keySet()));
+        } catch (RuntimeException e) {
+            log.warn("Employee import {} could not check a batch of emails: {}", job.getId(), e.toString());
+            byEmail.values().forEach(row -> reject(job, row.number, row.employee.getEmail(), describe(e)));
+            return List.of();
+        }
+        List<Row> fresh = new ArrayList<>(byEmail.size());
+        for (Row row : byEmail.values()) {
+            if(existing.contains(row.employee.getEmail())){
+                reject(job, row.number, row.employee.getEmail(), "Employee already exist:" + row.employee.getEmail());
+            } else {
+                fresh.add(row);
+            }
+        }
+        return fresh;
+    }
+
+    private void write(EmployeeImportJob job, BlockingQueue<List<Row>> deduped) {
+        try {
+            for (List<Row> batch = deduped.take(); batch != END; batch = deduped.take()) {
+                writeBatch(job, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBatch(EmployeeImportJob job, List<Row> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        // copies, so ids assigned by a rolled back attempt never reach the one-by-one retry
+        List<Employee> employees = new ArrayList<>(batch.size());
+        batch.forEach(row -> employees.add(row.employee.toBuilder().build()));
+        try {
+            withConnection(() -> employeeService.saveEmployees(employees));
+            job.imported(batch.size());
+            importedRows.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.debug("Import batch of {} failed, saving one by one: {}", batch.size(), e.toString());
+            for (Row row : batch) {
+                try {
+                    withConnection(() -> employeeService.saveEmployee(row.employee));
+                    job.imported(1);
+                    importedRows.increment();
+                } catch (RuntimeException single) {
+                    reject(job, row.number, row.employee.getEmail(), describe(single));
+                }
+            }
+        }
+        writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> T withConnection(Supplier<T> work) throws InterruptedException {
+        connections.acquire();
+        try {
+            return work.get();
+        } finally {
+            connections.release();
+        }
+    }
+
+    // null when the row was rejected
+    private Employee toEmployee(EmployeeImportJob job, long row, String[] values, int[] columns) {
+        String firstName = value(values, columns[0]);
+        String lastName = value(values, columns[1]);
+        String email = value(values, columns[2]);
+        String problem = null;
+        if(firstName.isEmpty() || lastName.isEmpty() || email.isEmpty()){
+            problem = "firstName, lastName and email are required";
+        } else if(firstName.length() > MAX_VALUE_LENGTH || lastName.length() > MAX_VALUE_LENGTH || email.length() > MAX_VALUE_LENGTH){
+            problem = "Values are limited to " + MAX_VALUE_LENGTH + " characters";
+        } else if(!isEmail(email)){
+            problem = "Not an email address";
+        }
+        if(problem != null){
+            reject(job, row, email.isEmpty() ? null : email, problem);
+            return null;
+        }
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+
+    private void reject(EmployeeImportJob job, long row, String email, String message) {
+        job.reject(row, email, message);
+        rejectedRows.increment();
+    }
+
+    // column indexes of firstName, lastName and email
+    private static int[] readHeader(MappingIterator<String[]> rows) throws IOException {
+        String[] header;
+        try {
+            if(!rows.hasNextValue()){
+                throw new IllegalArgumentException("The CSV upload is empty");
+            }
+            header = rows.nextValue();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The CSV header cannot be read: " + e.getOriginalMessage(), e);
+        }
+        String[] required = {Employee.FIRST_NAME, Employee.LAST_NAME, Employee.EMAIL};
+        int[] columns = new int[required.length];
+        for (int i = 0; i < required.length; i++) {
+            columns[i] = -1;
+            for (int column = 0; column < header.length; column++) {
+                // spreadsheet exports often start with a byte order mark
+                String name = header[column].replace("\uFEFF", "").trim();
+                if(name.toLowerCase(Locale.ROOT).equals(required[i].toLowerCase(Locale.ROOT))){
+                    columns[i] = column;
+                    break;
+                }
+            }
+            if(columns[i] < 0){
+                throw new IllegalArgumentException("The CSV header must name the firstName, lastName and email columns");
+            }
+        }
+        return columns;
+    }
+
+    private static String value(String[] values, int column) {
+        return column < values.length && values[column] != null ? values[column].trim() : "";
+    }
+
+    private static boolean isEmail(String email) {
+        int at = email.indexOf('@');
+        if(at <= 0 || at != email.lastIndexOf('@') || at == email.length() - 1){
+            return false;
+        }
+        for (int i = 0; i < email.length(); i++) {
+            if(Character.isWhitespace(email.charAt(i))){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    // a full queue waits for the next stage, unless that stage is gone and would never take it
+    private static void handOff(BlockingQueue<List<Row>> queue, List<Row> batch, BooleanSupplier consumerStopped)
+            throws InterruptedException {
+        while (!queue.offer(batch, HAND_OFF_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if(consumerStopped.getAsBoolean()){
+                throw new IllegalStateException("An employee import stage stopped");
+            }
+        }
+    }
+
+    private static final class Row {
+
+        // 1-based data row, for error reports
+        private final long number;
+
+        private final Employee employee;
+
+        private Row(long number, Employee employee) {
+            this.number = number;
+            this.employee = employee;
+        }
+    }
+}
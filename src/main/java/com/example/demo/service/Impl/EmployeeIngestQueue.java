@@ -0,0 +1,186 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces single-employee creates into batched transactions. Callers enqueue and get a future; one
+ * flusher thread takes whatever arrived within max-wait of the oldest request, up to max-batch-size,
+ * and saves it through saveEmployees. If the batch fails as a whole (usually one duplicate email),
+ * its rows are retried one by one so every caller still gets its own result or error.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.ingest.enabled", havingValue = "true")
+public class EmployeeIngestQueue implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeIngestQueue.class);
+
+    public static final String METRIC_NAME = "employees.ingest";
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final BlockingQueue<Pending> queue;
+
+    private final EmployeeService employeeService;
+
+    private final int maxBatchSize;
+
+    private final long maxWaitNanos;
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer flushTimer;
+
+    private final Counter rejected;
+
+    @Autowired
+    public EmployeeIngestQueue(EmployeeService employeeService, MeterRegistry meterRegistry,
+                               @Value("${employees.ingest.queue-capacity:10000}") int queueCapacity,
+                               @Value("${employees.ingest.max-batch-size:500}") int maxBatchSize,
+                               @Value("${employees.ingest.max-wait:5ms}") Duration maxWait) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.employeeService = employeeService;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = maxWait.toNanos();
+
+        this.batchSizes = DistributionSummary.builder(METRIC_NAME + ".batch.size")
+                .description("Creates saved per flushed transaction")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_NAME + ".flush")
+                .description("Time to save one coalesced batch, including one-by-one retries")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Creates refused because the ingest queue was full")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".queue.size", queue, BlockingQueue::size)
+                .description("Creates waiting for the next flush")
+                .register(meterRegistry);
+
+        this.flusher = new Thread(this::run, "employee-ingest");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // never blocks the caller: a full queue is refused so the client backs off instead of piling up threads
+    public CompletableFuture<Employee> submit(Employee employee) {
+        Pending pending = new Pending(employee);
+        if(!running || !queue.offer(pending)){
+            rejected.increment();
+            throw new RejectedExecutionException("Employee ingest queue is full");
+        }
+        return pending.result;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // anything that slipped in after the flusher's last look
+        List<Pending> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.forEach(pending -> pending.result.completeExceptionally(
+                new RejectedExecutionException("Employee ingest queue is shut down")));
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(first == null){
+                    continue;
+                }
+                batch.add(first);
+                // the window starts when the oldest request arrived, so a backlog flushes at once
+                long deadline = first.enqueuedNanos + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    if(queue.drainTo(batch, maxBatchSize - batch.size()) > 0){
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if(next == null){
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Employee ingest flush failed", e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        // copies, so ids assigned by a rolled back attempt never reach the one-by-one retry
+        List<Employee> employees = new ArrayList<>(batch.size());
+        batch.forEach(pending -> employees.add(pending.employee.toBuilder().build()));
+        try {
+            List<Employee> saved = employeeService.saveEmployees(employees);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Coalesced batch of {} failed, saving one by one: {}", batch.size(), e.toString());
+            for (Pending pending : batch) {
+                try {
+                    pending.result.complete(employeeService.saveEmployee(pending.employee));
+                } catch (RuntimeException single) {
+                    pending.result.completeExceptionally(single);
+                }
+            }
+        }
+        batchSizes.record(batch.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Pending {
+
+        private final Employee employee;
+
+        private final CompletableFuture<Employee> result = new CompletableFuture<>();
+
+        private final long enqueuedNanos = System.nanoTime();
+
+        private Pending(Employee employee) {
+            this.employee = employee;
+        }
+    }
+}
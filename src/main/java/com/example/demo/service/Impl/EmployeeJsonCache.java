@@ -0,0 +1,84 @@
+package com.example.demo.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Ready-encoded JSON per employee id, together with the ETag of the version it was encoded from, so a
+ * hot GET /api/employees/{id} neither copies the entity nor runs Jackson. Bounded by total bytes rather
+ * than entry count. Entries are dropped whenever EmployeeServiceImpl writes the id; unknown ids are not
+ * cached here, EmployeeCache already remembers those.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.json-cache.enabled", havingValue = "true")
+public class EmployeeJsonCache implements MeterBinder {
+
+    private final Cache<Long, Entry> cache;
+
+    @Autowired
+    public EmployeeJsonCache(@Value("${employees.json-cache.maximum-weight:32MB}") DataSize maximumWeight,
+                             @Value("${employees.json-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher((Long id, Entry entry) -> entry.json.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // the loader returns null for a missing employee, which is passed through and not cached
+    public Entry get(long id, Function<Long, Entry> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, "employeeJsonById", Tags.empty()).bindTo(registry);
+    }
+
+    public static final class Entry {
+
+        private final String etag;
+
+        // handed to the response as is; nobody may modify it
+        private final byte[] json;
+
+        public Entry(String etag, byte[] json) {
+            this.etag = etag;
+            this.json = json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+    }
+}
@@ -1,75 +1,633 @@
 package com.example.demo.service.Impl;
 
+import com.example.demo.datasource.ReadWriteRoutingDataSource;
+import com.example.demo.datasource.RecentlyWrittenIds;
+import com.example.demo.dto.EmployeeCursor;
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryPage;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.model.Employee;
+import com.example.demo.model.EmployeeChange;
 import com.example.demo.repository.EmployeeRepository;
 import com.example.demo.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+
+    private static final int ID_LOOKUP_CHUNK = 1000;
+
+    private static final String CACHE_RETRIEVE_MODE = "javax.persistence.cache.retrieveMode";
+
     private EmployeeRepository employeeRepository;
 
+    private EntityManager entityManager;
+
+    private EmailBloomFilter emailFilter;
+
+    private EmployeeCache employeeCache;
+
+    private EmployeeSuggestIndex suggestIndex;
+
+    private EmployeeJsonCache employeeJsonCache;
+
+    private EmployeeChangeLog changeLog;
+
+    private EmployeesVersionCounter versionCounter;
+
+    // null unless reads are routed to a replica
+    private RecentlyWrittenIds recentWrites;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${employees.export.clear-interval:1000}")
+    private int exportClearInterval;
+
+    @Value("${employees.l2-cache.enabled:true}")
+    private boolean l2CacheEnabled;
+
     @Autowired
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               @Nullable EmailBloomFilter emailFilter, @Nullable EmployeeCache employeeCache,
+                               @Nullable EmployeeSuggestIndex suggestIndex, @Nullable EmployeeJsonCache employeeJsonCache,
+                               @Nullable EmployeeChangeLog changeLog, EmployeesVersionCounter versionCounter,
+                               @Nullable RecentlyWrittenIds recentWrites) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.emailFilter = emailFilter;
+        this.employeeCache = employeeCache;
+        this.suggestIndex = suggestIndex;
+        this.employeeJsonCache = employeeJsonCache;
+        this.changeLog = changeLog;
+        this.versionCounter = versionCounter;
+        this.recentWrites = recentWrites;
     }
 
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-
-        if(savedEmployee.isPresent()){
+        // a filter hit is only a "maybe", so look it up; a miss goes straight to the insert
+        if(emailFilter != null && emailFilter.mightContain(employee.getEmail())
+                && employeeRepository.findByEmail(employee.getEmail()).isPresent()){
             throw new ResourceNotFoundException("Employee already exist:"+employee.getEmail());
         }
 
-        return employeeRepository.save(employee);
+        // insert first and let the unique index on email decide, so concurrent creates cannot race
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw new ResourceNotFoundException("Employee already exist:"+employee.getEmail(), e);
+            }
+            throw e;
+        }
+
+        if(changeLog != null){
+            changeLog.recordSaved(savedEmployee, EmployeeChange.Type.CREATED);
+        }
+        rememberEmail(savedEmployee.getEmail());
+        // the new id may have been probed earlier and cached as missing
+        afterCommit(() -> evict(savedEmployee.getId()));
+        index(savedEmployee);
+        changed();
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees) {
+
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if(!emails.add(employee.getEmail())){
+                throw new ResourceNotFoundException("Employee already exist:"+employee.getEmail());
+            }
+        }
+
+        List<String> emailList = new ArrayList<>(emails);
+        for (int from = 0; from < emailList.size(); from += EMAIL_LOOKUP_CHUNK) {
+            List<String> chunk = emailList.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, emailList.size()));
+            List<Employee> existing = employeeRepository.findByEmailIn(chunk);
+            if(!existing.isEmpty()){
+                throw new ResourceNotFoundException("Employee already exist:"+existing.get(0).getEmail());
+            }
+        }
+
+        // flush and clear per JDBC batch so the persistence context never holds the whole load
+        int step = Math.max(1, batchSize);
+        List<Employee> savedEmployees = new ArrayList<>(employees.size());
+        for (int from = 0; from < employees.size(); from += step) {
+            List<Employee> saved = employeeRepository.saveAll(employees.subList(from, Math.min(from + step, employees.size())));
+            if(changeLog != null){
+                changeLog.recordCreated(saved);
+            }
+            savedEmployees.addAll(saved);
+            // the lookup above cannot see a create that commits after it; the unique index can
+            try {
+                entityManager.flush();
+            } catch (DataIntegrityViolationException e) {
+                if(isDuplicateEmail(e)){
+                    throw new ResourceNotFoundException("Employee already exist", e);
+                }
+                throw e;
+            }
+            entityManager.clear();
+        }
+        emails.forEach(this::rememberEmail);
+        // the new ids may have been probed earlier and cached as missing
+        afterCommit(() -> savedEmployees.forEach(employee -> evict(employee.getId())));
+        savedEmployees.forEach(this::index);
+        changed();
+        return savedEmployees;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
+    // from the replica like the list ETag's version row, so a page that is behind goes out under the tag
+    // of that same moment
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(long afterId, int limit) {
+        // fetch one extra row to find out whether another page follows
+        List<Employee> rows = employeeRepository.findPageAfterId(afterId, PageRequest.of(0, limit + 1));
+
+        if(rows.size() <= limit){
+            return new EmployeePage(rows, null);
+        }
+
+        List<Employee> page = rows.subList(0, limit);
+        return new EmployeePage(page, EmployeeCursor.encode(page.get(limit - 1).getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEmployees(Consumer<Employee> consumer) {
+        long count = 0;
+        try (Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+            for (Employee employee : (Iterable<Employee>) employees::iterator) {
+                consumer.accept(employee);
+                count++;
+                // drop written rows from the persistence context so memory stays flat
+                if (exportClearInterval > 0 && count % exportClearInterval == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    // no transaction of its own here, so entity cache hits never touch a connection
     @Override
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        if(employeeCache == null){
+            return findById(id);
+        }
+        return employeeCache.get(id, this::findById);
     }
 
     @Override
-    public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+    @Transactional(readOnly = true)
+    public EmployeeSummaryPage searchEmployees(String firstName, String lastName, long afterId, int limit) {
+        // fetch one extra row to find out whether another page follows
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+        List<EmployeeSummary> rows = firstName == null
+                ? employeeRepository.findSummariesByLastName(lastName, afterId, pageRequest)
+                : employeeRepository.findSummariesByName(firstName, lastName, afterId, pageRequest);
+
+        if(rows.size() <= limit){
+            return new EmployeeSummaryPage(rows, null);
+        }
+
+        List<EmployeeSummary> page = rows.subList(0, limit);
+        return new EmployeeSummaryPage(page, EmployeeCursor.encode(page.get(limit - 1).getId()));
     }
 
     @Override
-    public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+    @Transactional(readOnly = true)
+    public Optional<EmployeeSummary> getEmployeeSummaryByEmail(String email) {
+        return employeeRepository.findSummaryByEmail(email);
     }
 
-}
+    // bulk existence check for imports; only emails the filter cannot rule out are looked up
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> getExistingEmails(Collection<String> emails) {
+        List<String> candidates = new ArrayList<>();
+        for (String email : new LinkedHashSet<>(emails)) {
+            if(emailFilter == null || emailFilter.mightContain(email)){
+                candidates.add(email);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += EMAIL_LOOKUP_CHUNK) {
+            List<String> chunk = candidates.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, candidates.size()));
+            employeeRepository.findByEmailIn(chunk).forEach(employee -> existing.add(employee.getEmail()));
+        }
+        return existing;
+    }
+
+    // the version decides If-Match and If-None-Match, so it is read where the writes are
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+        return ReadWriteRoutingDataSource.onPrimary(() -> employeeRepository.findVersionById(id));
+    }
+
+    // for revalidation (If-None-Match): both caches hold the entity with its version, so only a miss in
+    // both costs the version query
+    @Override
+    public Optional<Long> getCachedEmployeeVersion(long id) {
+        if(employeeCache != null){
+            Optional<Long> cached = employeeCache.getVersionIfPresent(id);
+            if(cached.isPresent()){
+                return cached;
+            }
+        }
+        if(entityManager.getEntityManagerFactory().getCache().contains(Employee.class, id)){
+            return getEmployeeById(id).map(Employee::getVersion);
+        }
+        return getEmployeeVersion(id);
+    }
+
+    @Override
+    public String getEmployeesVersion() {
+        return versionCounter.get();
+    }
+
+    @Override
+    public EmployeeBatch getEmployeesByIds(Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, Employee> found = new HashMap<>();
+        if(employeeCache != null){
+            found.putAll(employeeCache.getAll(requested, this::findAllById));
+        } else {
+            findAllById(requested).forEach(employee -> found.put(employee.getId(), employee));
+        }
+
+        List<Employee> employees = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Employee employee = found.get(id);
+            if(employee != null){
+                employees.add(employee);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new EmployeeBatch(employees, missingIds);
+    }
+
+    @Override
+    public List<EmployeeSummary> suggestEmployees(String query, int limit) {
+        if(suggestIndex != null){
+            return suggestIndex.suggest(query, limit);
+        }
+        return employeeRepository.findSummariesByLastNamePrefix(escapeLike(query.trim()), PageRequest.of(0, limit));
+    }
 
+    @Override
+    @Transactional
+    public Employee updateEmployee(Employee updatedEmployee) {
+        // flushed here so a taken email fails as a duplicate rather than at commit, and the change
+        // records the version the flush bumped
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(updatedEmployee);
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw new ResourceNotFoundException("Employee already exist:"+updatedEmployee.getEmail(), e);
+            }
+            throw e;
+        }
+        if(changeLog != null){
+            changeLog.recordSaved(savedEmployee, EmployeeChange.Type.UPDATED);
+        }
+        rememberEmail(savedEmployee.getEmail());
+        afterCommit(() -> evict(savedEmployee.getId()));
+        index(savedEmployee);
+        changed();
+        return savedEmployee;
+    }
 
+    @Override
+    @Transactional
+    public Optional<Employee> patchEmployee(long id, Map<String, String> changes, @Nullable Long expectedVersion) {
+        Optional<Employee> found = employeeRepository.findById(id);
+        if(found.isEmpty()){
+            return found;
+        }
+        Employee employee = found.get();
+        if(expectedVersion != null && employee.getVersion() != expectedVersion){
+            throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+        }
+
+        // the entity is managed, so setting only the patched fields lets @DynamicUpdate write only those columns
+        changes.forEach((field, value) -> setField(employee, field, value));
+        try {
+            employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw new ResourceNotFoundException("Employee already exist:"+employee.getEmail(), e);
+            }
+            throw e;
+        }
 
+        if(changeLog != null){
+            changeLog.recordSaved(employee, EmployeeChange.Type.UPDATED);
+        }
+        rememberEmail(employee.getEmail());
+        afterCommit(() -> evict(id));
+        index(employee);
+        changed();
+        return found;
+    }
 
+    @Override
+    @Transactional
+    public boolean patchEmployeeField(long id, String field, String value, @Nullable Long expectedVersion) {
+        if(l2CacheEnabled){
+            return patchCachedEmployeeField(id, field, value, expectedVersion);
+        }
+        long version = expectedVersion == null ? -1 : expectedVersion;
+        int updated;
+        try {
+            switch (field) {
+                case Employee.FIRST_NAME:
+                    updated = employeeRepository.updateFirstName(id, value, version);
+                    break;
+                case Employee.LAST_NAME:
+                    updated = employeeRepository.updateLastName(id, value, version);
+                    break;
+                case Employee.EMAIL:
+                    updated = employeeRepository.updateEmail(id, value, version);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw new ResourceNotFoundException("Employee already exist:"+value, e);
+            }
+            throw e;
+        }
 
+        if(updated == 0){
+            // nothing matched: tell a missing row apart from a stale version only on this rare path
+            if(expectedVersion != null && employeeRepository.findVersionById(id).isPresent()){
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            return false;
+        }
+
+        if(changeLog != null){
+            // the only read on this path, to give the change the whole row and its new version. Past the
+            // second-level cache, which may still hold the row as it was before the update statement
+            Employee employee = entityManager.find(Employee.class, id, Map.of(CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS));
+            if(employee != null){
+                changeLog.recordSaved(employee, EmployeeChange.Type.UPDATED);
+            }
+        }
+        if(Employee.EMAIL.equals(field)){
+            rememberEmail(value);
+        }
+        afterCommit(() -> evict(id));
+        if(suggestIndex != null){
+            suggestIndex.update(id, summary -> {
+                Employee employee = new Employee(summary.getId(), summary.getFirstName(), summary.getLastName(), summary.getEmail(), 0);
+                setField(employee, field, value);
+                return new EmployeeSummary(summary.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail());
+            });
+        }
+        changed();
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(long id) {
+        if(employeeRepository.deleteByIds(List.of(id)) == 0){
+            return false;
+        }
+        if(changeLog != null){
+            changeLog.recordDeleted(List.of(id));
+        }
+        afterCommit(() -> removed(id));
+        changed();
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployees(Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < idList.size(); from += ID_LOOKUP_CHUNK) {
+            List<Long> chunk = idList.subList(from, Math.min(from + ID_LOOKUP_CHUNK, idList.size()));
+            if(changeLog != null){
+                // record only the ids that are really there
+                chunk = employeeRepository.findExistingIds(chunk);
+                if(chunk.isEmpty()){
+                    continue;
+                }
+            }
+            deleted += employeeRepository.deleteByIds(chunk);
+            // once the delete holds the rows, like every other write records its change
+            if(changeLog != null){
+                changeLog.recordDeleted(chunk);
+            }
+        }
+        if(deleted > 0){
+            afterCommit(() -> idList.forEach(this::removed));
+            changed();
+        }
+        return deleted;
+    }
 
+    // Loads that fill the entity cache, and the second-level cache underneath it, come from the replica,
+    // except for ids written here within the read-your-writes window (see RecentlyWrittenIds)
+    private Optional<Employee> findById(long id) {
+        if(recentWrites != null && recentWrites.contains(id)){
+            return ReadWriteRoutingDataSource.onPrimary(() -> employeeRepository.findById(id));
+        }
+        return employeeRepository.findById(id);
+    }
 
+    private List<Employee> findAllById(Collection<Long> ids) {
+        if(recentWrites == null){
+            return findAllByIdInChunks(ids);
+        }
+        List<Long> recent = new ArrayList<>();
+        List<Long> others = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            (recentWrites.contains(id) ? recent : others).add(id);
+        }
+        List<Employee> employees = findAllByIdInChunks(others);
+        if(!recent.isEmpty()){
+            employees.addAll(ReadWriteRoutingDataSource.onPrimary(() -> findAllByIdInChunks(recent)));
+        }
+        return employees;
+    }
 
+    // bounded IN lists keep the statement size and the database's parse cost in check
+    private List<Employee> findAllByIdInChunks(Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<Employee> employees = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += ID_LOOKUP_CHUNK) {
+            employees.addAll(employeeRepository.findAllById(idList.subList(from, Math.min(from + ID_LOOKUP_CHUNK, idList.size()))));
+        }
+        return employees;
+    }
 
+    // A bulk update statement evicts the whole Employee region from the second-level cache. Through the
+    // managed entity only this row's entry is replaced, the read is usually a cache hit, and @DynamicUpdate
+    // still writes one UPDATE of the one column
+    private boolean patchCachedEmployeeField(long id, String field, String value, @Nullable Long expectedVersion) {
+        Optional<Employee> found = employeeRepository.findById(id);
+        if(found.isEmpty()){
+            return false;
+        }
+        // like the statement, setting a field to its current value still bumps the version
+        if(value.equals(getField(found.get(), field))){
+            entityManager.lock(found.get(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+        return patchEmployee(id, Map.of(field, value), expectedVersion).isPresent();
+    }
 
+    private static String getField(Employee employee, String field) {
+        switch (field) {
+            case Employee.FIRST_NAME:
+                return employee.getFirstName();
+            case Employee.LAST_NAME:
+                return employee.getLastName();
+            case Employee.EMAIL:
+                return employee.getEmail();
+            default:
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+        }
+    }
 
+    private static void setField(Employee employee, String field, String value) {
+        switch (field) {
+            case Employee.FIRST_NAME:
+                employee.setFirstName(value);
+                break;
+            case Employee.LAST_NAME:
+                employee.setLastName(value);
+                break;
+            case Employee.EMAIL:
+                employee.setEmail(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+        }
+    }
 
+    private void rememberEmail(String email) {
+        if(emailFilter != null){
+            emailFilter.put(email);
+        }
+    }
 
+    // after commit; the id is marked first, so the load that follows the eviction reads the primary
+    private void evict(long id) {
+        if(recentWrites != null){
+            recentWrites.add(id);
+        }
+        if(employeeCache != null){
+            employeeCache.invalidate(id);
+        }
+        // after the entity cache, so a concurrent JSON load cannot re-encode the old entity
+        if(employeeJsonCache != null){
+            employeeJsonCache.invalidate(id);
+        }
+    }
 
+    private void removed(long id) {
+        evict(id);
+        if(suggestIndex != null){
+            suggestIndex.remove(id);
+        }
+    }
 
+    private void index(Employee employee) {
+        if(suggestIndex == null){
+            return;
+        }
+        EmployeeSummary summary = new EmployeeSummary(employee.getId(), employee.getFirstName(),
+                employee.getLastName(), employee.getEmail());
+        afterCommit(() -> suggestIndex.put(summary));
+    }
 
+    // last in each write: the list ETag moves in the same transaction, and its row lock is held briefly
+    private void changed() {
+        versionCounter.increment();
+    }
 
+    // inside a transaction (saveEmployees) a write only becomes visible on commit
+    private static void afterCommit(Runnable action) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 
+    // the user's input is matched literally, a % or _ in it is not a wildcard
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof ConstraintViolationException){
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
 
+}
@@ -0,0 +1,174 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Prefix index over first name, last name, full name and email for typeahead. Keys are lowercased with
+ * diacritics stripped and kept in a sorted map as "key\0id", so a prefix lookup is one range scan that
+ * stops after the requested number of distinct employees.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.suggest.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSuggestIndex.class);
+
+    private static final char SEPARATOR = '\0';
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ConcurrentSkipListMap<String, Boolean> keys = new ConcurrentSkipListMap<>();
+
+    // what is indexed for each id, so updates and deletes can drop the old keys
+    private final ConcurrentHashMap<Long, EmployeeSummary> employees = new ConcurrentHashMap<>();
+
+    // deletes seen while the startup scan runs, so it cannot bring those rows back
+    private final Set<Long> deletedDuringWarmUp = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmingUp;
+
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    public EmployeeSuggestIndex(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    public EmployeeSuggestIndex() {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        warmingUp = true;
+        long count = 0;
+        try (Stream<EmployeeSummary> summaries = employeeRepository.streamAllSummaries()) {
+            for (EmployeeSummary summary : (Iterable<EmployeeSummary>) summaries::iterator) {
+                // a write since startup is newer than the scanned row
+                if(!deletedDuringWarmUp.contains(summary.getId()) && employees.putIfAbsent(summary.getId(), summary) == null){
+                    addKeys(summary);
+                }
+                count++;
+            }
+        } finally {
+            warmingUp = false;
+            deletedDuringWarmUp.clear();
+        }
+        log.info("Suggest index loaded with {} employees and {} keys", count, keys.size());
+    }
+
+    public void put(EmployeeSummary summary) {
+        employees.compute(summary.getId(), (id, previous) -> {
+            if(previous != null){
+                removeKeys(previous);
+            }
+            addKeys(summary);
+            return summary;
+        });
+    }
+
+    // for partial updates that only know the changed fields; ids not indexed yet are left alone
+    public void update(long id, UnaryOperator<EmployeeSummary> change) {
+        employees.computeIfPresent(id, (key, previous) -> {
+            EmployeeSummary summary = change.apply(previous);
+            removeKeys(previous);
+            addKeys(summary);
+            return summary;
+        });
+    }
+
+    public void remove(long id) {
+        if(warmingUp){
+            deletedDuringWarmUp.add(id);
+        }
+        employees.computeIfPresent(id, (key, previous) -> {
+            removeKeys(previous);
+            return null;
+        });
+    }
+
+    public List<EmployeeSummary> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if(prefix.isEmpty() || limit <= 0){
+            return List.of();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        ConcurrentNavigableMap<String, Boolean> matches = keys.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        for (String key : matches.keySet()) {
+            ids.add(Long.parseLong(key.substring(key.lastIndexOf(SEPARATOR) + 1)));
+            if(ids.size() == limit){
+                break;
+            }
+        }
+
+        List<EmployeeSummary> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            EmployeeSummary summary = employees.get(id);
+            if(summary != null){
+                suggestions.add(summary);
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    static String normalize(String value) {
+        if(value == null){
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private void addKeys(EmployeeSummary summary) {
+        for (String key : keysOf(summary)) {
+            keys.put(key, Boolean.TRUE);
+        }
+    }
+
+    private void removeKeys(EmployeeSummary summary) {
+        for (String key : keysOf(summary)) {
+            keys.remove(key);
+        }
+    }
+
+    private static List<String> keysOf(EmployeeSummary summary) {
+        String suffix = SEPARATOR + Long.toString(summary.getId());
+        String fullName = summary.getFirstName() == null || summary.getLastName() == null
+                ? null : summary.getFirstName() + " " + summary.getLastName();
+        List<String> result = new ArrayList<>(4);
+        for (String value : new String[]{summary.getFirstName(), summary.getLastName(), fullName, summary.getEmail()}) {
+            String normalized = normalize(value);
+            if(!normalized.isEmpty()){
+                result.add(normalized + suffix);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.model.EmployeesVersion;
+import com.example.demo.repository.EmployeesVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Table-level change counter for list ETags, kept in the employees_version row. EmployeeServiceImpl
+ * increments it inside every write transaction, so the tag moves when a write commits on any instance
+ * and never before. The increment holds the row lock until commit, which serializes writers on it;
+ * it is the last statement of each write to keep that short.
+ */
+@Component
+public class EmployeesVersionCounter {
+
+    private final EmployeesVersionRepository versionRepository;
+
+    private final TransactionTemplate createTemplate;
+
+    @Autowired
+    public EmployeesVersionCounter(EmployeesVersionRepository versionRepository, PlatformTransactionManager transactionManager) {
+        this.versionRepository = versionRepository;
+        this.createTemplate = new TransactionTemplate(transactionManager);
+        this.createTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increment() {
+        if(versionRepository.increment(EmployeesVersion.ROW_ID) == 0){
+            create();
+            versionRepository.increment(EmployeesVersion.ROW_ID);
+        }
+    }
+
+    // read-only, so with routing on a replica answers with the version of the rows it holds
+    @Transactional(readOnly = true)
+    public String get() {
+        return versionRepository.findById(EmployeesVersion.ROW_ID)
+                .map(version -> Long.toString(version.getEpoch(), 36) + "-" + version.getVersion())
+                .orElse("0");
+    }
+
+    // the first write to a new database; committed on its own so a failed write does not take the row along
+    private void create() {
+        try {
+            createTemplate.executeWithoutResult(status -> {
+                if(!versionRepository.existsById(EmployeesVersion.ROW_ID)){
+                    versionRepository.saveAndFlush(new EmployeesVersion(EmployeesVersion.ROW_ID, System.currentTimeMillis(), 0));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another writer created it first
+        }
+    }
+}
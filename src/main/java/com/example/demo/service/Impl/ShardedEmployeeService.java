@@ -0,0 +1,426 @@
+package com.example.demo.service.Impl;
+
+import com.example.demo.datasource.ShardRoutingDataSource;
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeCursor;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryPage;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.EmployeeService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * EmployeeService over N shards. Every call is handed to EmployeeServiceImpl on the shard that owns
+ * the row: id mod N for anything addressed by id, the email's home shard (its hash mod N) for new
+ * employees. Lists, pages and searches ask every shard in parallel and merge the id-ordered results.
+ * Email uniqueness is checked across all shards before a write; two creates racing on different
+ * shards can still both succeed, and a batch spanning shards is committed shard by shard.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "employees.sharding.enabled", havingValue = "true")
+public class ShardedEmployeeService implements EmployeeService {
+
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+
+    private static final Comparator<Employee> BY_ID = Comparator.comparingLong(Employee::getId);
+
+    private static final Comparator<EmployeeSummary> SUMMARY_BY_ID = Comparator.comparingLong(EmployeeSummary::getId);
+
+    private EmployeeServiceImpl employeeService;
+
+    private EmployeeRepository employeeRepository;
+
+    private EmailBloomFilter emailFilter;
+
+    private EmployeeSuggestIndex suggestIndex;
+
+    private ExecutorService shardExecutor;
+
+    private int shardCount;
+
+    // emails living away from their home shard, because they were changed after the row was created.
+    // Bounded: an evicted or unknown one is found by asking every shard
+    private final Cache<String, Integer> movedEmails;
+
+    @Autowired
+    public ShardedEmployeeService(EmployeeServiceImpl employeeService, EmployeeRepository employeeRepository,
+                                  @Nullable EmailBloomFilter emailFilter, @Nullable EmployeeSuggestIndex suggestIndex,
+                                  ShardRoutingDataSource shardRoutingDataSource,
+                                  @Qualifier("employeeShardExecutor") ExecutorService shardExecutor,
+                                  @Value("${employees.sharding.moved-email-cache-size:100000}") long movedEmailCacheSize) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.emailFilter = emailFilter;
+        this.suggestIndex = suggestIndex;
+        this.shardExecutor = shardExecutor;
+        this.shardCount = shardRoutingDataSource.getShardCount();
+        this.movedEmails = Caffeine.newBuilder().maximumSize(movedEmailCacheSize).build();
+    }
+
+    // the email filter and suggest index load shard 0 on their own
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOtherShards() {
+        for (int shard = 1; shard < shardCount; shard++) {
+            ShardRoutingDataSource.onShard(shard, () -> {
+                if(emailFilter != null){
+                    emailFilter.warmUp();
+                }
+                if(suggestIndex != null){
+                    suggestIndex.warmUp();
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        if(findSummaryByEmail(employee.getEmail()).isPresent()){
+            throw new ResourceNotFoundException("Employee already exist:"+employee.getEmail());
+        }
+        return ShardRoutingDataSource.onShard(homeShard(employee.getEmail()), () -> employeeService.saveEmployee(employee));
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if(!emails.add(employee.getEmail())){
+                throw new ResourceNotFoundException("Employee already exist:"+employee.getEmail());
+            }
+        }
+        List<String> candidates = new ArrayList<>();
+        for (String email : emails) {
+            if(emailFilter == null || emailFilter.mightContain(email)){
+                candidates.add(email);
+            }
+        }
+        for (int from = 0; from < candidates.size(); from += EMAIL_LOOKUP_CHUNK) {
+            List<String> chunk = candidates.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, candidates.size()));
+            for (List<Employee> existing : scatter(shard -> employeeRepository.findByEmailIn(chunk))) {
+                if(!existing.isEmpty()){
+                    throw new ResourceNotFoundException("Employee already exist:"+existing.get(0).getEmail());
+                }
+            }
+        }
+
+        Map<Integer, List<Employee>> byShard = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            byShard.computeIfAbsent(homeShard(employee.getEmail()), shard -> new ArrayList<>()).add(employee);
+        }
+        Map<Employee, Employee> saved = new IdentityHashMap<>();
+        List<Integer> shards = new ArrayList<>(byShard.keySet());
+        List<List<Employee>> results = onShards(shards, shard -> employeeService.saveEmployees(byShard.get(shard)));
+        for (int i = 0; i < shards.size(); i++) {
+            List<Employee> group = byShard.get(shards.get(i));
+            for (int j = 0; j < group.size(); j++) {
+                saved.put(group.get(j), results.get(i).get(j));
+            }
+        }
+        List<Employee> savedEmployees = new ArrayList<>(employees.size());
+        employees.forEach(employee -> savedEmployees.add(saved.get(employee)));
+        return savedEmployees;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        List<Employee> employees = new ArrayList<>();
+        scatter(shard -> employeeService.getAllEmployees()).forEach(employees::addAll);
+        employees.sort(BY_ID);
+        return employees;
+    }
+
+    @Override
+    public EmployeePage getEmployeePage(long afterId, int limit) {
+        // every shard's page is id-ordered, so the first limit rows of the merge are the global page
+        List<EmployeePage> pages = scatter(shard -> employeeService.getEmployeePage(afterId, limit));
+        List<Employee> rows = new ArrayList<>();
+        boolean more = false;
+        for (EmployeePage page : pages) {
+            rows.addAll(page.getEmployees());
+            more |= page.getNextCursor() != null;
+        }
+        // the sort merges the already ordered runs
+        rows.sort(BY_ID);
+        more |= rows.size() > limit;
+        List<Employee> page = new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+        return new EmployeePage(page, more && !page.isEmpty() ? EmployeeCursor.encode(page.get(page.size() - 1).getId()) : null);
+    }
+
+    // shard by shard: rows come in id order within a shard, not across shards
+    @Override
+    public long exportEmployees(Consumer<Employee> consumer) {
+        long count = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            count += ShardRoutingDataSource.onShard(shard, () -> employeeService.exportEmployees(consumer));
+        }
+        return count;
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        return ShardRoutingDataSource.onShard(shardOf(id), () -> employeeService.getEmployeeById(id));
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+        return ShardRoutingDataSource.onShard(shardOf(id), () -> employeeService.getEmployeeVersion(id));
+    }
+
+    @Override
+    public Optional<Long> getCachedEmployeeVersion(long id) {
+        return ShardRoutingDataSource.onShard(shardOf(id), () -> employeeService.getCachedEmployeeVersion(id));
+    }
+
+    // each shard counts its own writes; the tag moves when any of them does
+    @Override
+    public String getEmployeesVersion() {
+        return String.join(".", scatter(shard -> employeeService.getEmployeesVersion()));
+    }
+
+    @Override
+    public EmployeeBatch getEmployeesByIds(Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Integer, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : requested) {
+            byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        Map<Long, Employee> found = new HashMap<>();
+        for (EmployeeBatch batch : onShards(byShard.keySet(), shard -> employeeService.getEmployeesByIds(byShard.get(shard)))) {
+            batch.getEmployees().forEach(employee -> found.put(employee.getId(), employee));
+        }
+
+        List<Employee> employees = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Employee employee = found.get(id);
+            if(employee != null){
+                employees.add(employee);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new EmployeeBatch(employees, missingIds);
+    }
+
+    @Override
+    public EmployeeSummaryPage searchEmployees(String firstName, String lastName, long afterId, int limit) {
+        List<EmployeeSummaryPage> pages = scatter(shard -> employeeService.searchEmployees(firstName, lastName, afterId, limit));
+        List<EmployeeSummary> rows = new ArrayList<>();
+        boolean more = false;
+        for (EmployeeSummaryPage page : pages) {
+            rows.addAll(page.getEmployees());
+            more |= page.getNextCursor() != null;
+        }
+        rows.sort(SUMMARY_BY_ID);
+        more |= rows.size() > limit;
+        List<EmployeeSummary> page = new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+        return new EmployeeSummaryPage(page, more && !page.isEmpty() ? EmployeeCursor.encode(page.get(page.size() - 1).getId()) : null);
+    }
+
+    @Override
+    public Optional<EmployeeSummary> getEmployeeSummaryByEmail(String email) {
+        return findSummaryByEmail(email);
+    }
+
+    @Override
+    public Set<String> getExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        scatter(shard -> employeeService.getExistingEmails(emails)).forEach(existing::addAll);
+        return existing;
+    }
+
+    @Override
+    public List<EmployeeSummary> suggestEmployees(String query, int limit) {
+        if(suggestIndex != null){
+            return employeeService.suggestEmployees(query, limit);
+        }
+        List<EmployeeSummary> suggestions = new ArrayList<>();
+        scatter(shard -> employeeService.suggestEmployees(query, limit)).forEach(suggestions::addAll);
+        suggestions.sort(Comparator.comparing(EmployeeSummary::getLastName)
+                .thenComparing(EmployeeSummary::getFirstName)
+                .thenComparingLong(EmployeeSummary::getId));
+        return new ArrayList<>(suggestions.subList(0, Math.min(limit, suggestions.size())));
+    }
+
+    @Override
+    public Employee updateEmployee(Employee updatedEmployee) {
+        checkEmailFree(updatedEmployee.getId(), updatedEmployee.getEmail());
+        Employee savedEmployee = ShardRoutingDataSource.onShard(shardOf(updatedEmployee.getId()),
+                () -> employeeService.updateEmployee(updatedEmployee));
+        emailChanged(savedEmployee.getId(), savedEmployee.getEmail());
+        return savedEmployee;
+    }
+
+    @Override
+    public Optional<Employee> patchEmployee(long id, Map<String, String> changes, @Nullable Long expectedVersion) {
+        String email = changes.get(Employee.EMAIL);
+        if(email != null){
+            checkEmailFree(id, email);
+        }
+        Optional<Employee> patched = ShardRoutingDataSource.onShard(shardOf(id),
+                () -> employeeService.patchEmployee(id, changes, expectedVersion));
+        if(email != null && patched.isPresent()){
+            emailChanged(id, email);
+        }
+        return patched;
+    }
+
+    @Override
+    public boolean patchEmployeeField(long id, String field, String value, @Nullable Long expectedVersion) {
+        boolean email = Employee.EMAIL.equals(field);
+        if(email){
+            checkEmailFree(id, value);
+        }
+        boolean patched = ShardRoutingDataSource.onShard(shardOf(id),
+                () -> employeeService.patchEmployeeField(id, field, value, expectedVersion));
+        if(email && patched){
+            emailChanged(id, value);
+        }
+        return patched;
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        return ShardRoutingDataSource.onShard(shardOf(id), () -> employeeService.deleteEmployee(id));
+    }
+
+    @Override
+    public int deleteEmployees(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return onShards(byShard.keySet(), shard -> employeeService.deleteEmployees(byShard.get(shard)))
+                .stream().mapToInt(Integer::intValue).sum();
+    }
+
+    int shardOf(long id) {
+        return ShardRoutingDataSource.shardOf(id, shardCount);
+    }
+
+    int homeShard(String email) {
+        return Math.floorMod(email.hashCode(), shardCount);
+    }
+
+    // the shard remembered for a moved email, then the home shard, then all the others at once
+    private Optional<EmployeeSummary> findSummaryByEmail(String email) {
+        if(emailFilter != null && !emailFilter.mightContain(email)){
+            return Optional.empty();
+        }
+        Set<Integer> asked = new LinkedHashSet<>();
+        Integer moved = movedEmails.getIfPresent(email);
+        if(moved != null){
+            asked.add(moved);
+        }
+        asked.add(homeShard(email));
+        for (int shard : asked) {
+            Optional<EmployeeSummary> summary = ShardRoutingDataSource.onShard(shard, () -> employeeService.getEmployeeSummaryByEmail(email));
+            if(summary.isPresent()){
+                return summary;
+            }
+        }
+
+        List<Integer> others = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            if(!asked.contains(shard)){
+                others.add(shard);
+            }
+        }
+        for (Optional<EmployeeSummary> summary : onShards(others, shard -> employeeService.getEmployeeSummaryByEmail(email))) {
+            if(summary.isPresent()){
+                movedEmails.put(email, shardOf(summary.get().getId()));
+                return summary;
+            }
+        }
+        movedEmails.invalidate(email);
+        return Optional.empty();
+    }
+
+    // the unique index only covers one shard
+    private void checkEmailFree(long id, String email) {
+        Optional<EmployeeSummary> owner = findSummaryByEmail(email);
+        if(owner.isPresent() && owner.get().getId() != id){
+            throw new ResourceNotFoundException("Employee already exist:"+email);
+        }
+    }
+
+    private void emailChanged(long id, String email) {
+        int shard = shardOf(id);
+        if(shard != homeShard(email)){
+            movedEmails.put(email, shard);
+        }
+    }
+
+    private <T> List<T> scatter(IntFunction<T> work) {
+        Integer[] shards = new Integer[shardCount];
+        Arrays.setAll(shards, shard -> shard);
+        return onShards(Arrays.asList(shards), work);
+    }
+
+    // one task per shard on the shard executor, the last one on the calling thread; results in shard order
+    private <T> List<T> onShards(Collection<Integer> shards, IntFunction<T> work) {
+        List<Integer> targets = new ArrayList<>(shards);
+        if(targets.isEmpty()){
+            return List.of();
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.size() - 1);
+        for (int i = 0; i < targets.size() - 1; i++) {
+            int shard = targets.get(i);
+            futures.add(CompletableFuture.supplyAsync(onShard(shard, work), shardExecutor));
+        }
+        T last = onShard(targets.get(targets.size() - 1), work).get();
+
+        List<T> results = new ArrayList<>(targets.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        results.add(last);
+        return results;
+    }
+
+    private static <T> Supplier<T> onShard(int shard, IntFunction<T> work) {
+        return () -> ShardRoutingDataSource.onShard(shard, () -> work.apply(shard));
+    }
+}
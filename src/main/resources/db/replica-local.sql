@@ -0,0 +1,6 @@
+-- Stand-in replica for the local,replica profiles: its employees table, the list ETag's version row
+-- and the change feed's outbox are links to the primary's in-memory database, the same way a real
+-- replica serves the primary's rows, minus the lag.
+CREATE LINKED TABLE IF NOT EXISTS employees('org.h2.Driver', 'jdbc:h2:mem:employees', 'sa', '', 'EMPLOYEES') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS employee_changes('org.h2.Driver', 'jdbc:h2:mem:employees', 'sa', '', 'EMPLOYEE_CHANGES') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS employees_version('org.h2.Driver', 'jdbc:h2:mem:employees', 'sa', '', 'EMPLOYEES_VERSION') READONLY;
@@ -0,0 +1,87 @@
+package com.example.demo.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    private static final long THRESHOLD = 1_000_000L;
+
+    @Test
+    public void givenSlowCompletions_whenReleased_thenBackOffToMinimum(){
+        //given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, THRESHOLD, 0.5);
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(THRESHOLD * 2);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(2);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void givenFastCompletionsUnderLoad_whenReleased_thenGrowAdditively(){
+        //given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 100, THRESHOLD, 0.5);
+
+        //when
+        for (int round = 0; round < 10; round++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(THRESHOLD / 2);
+            limit.release(THRESHOLD / 2);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isGreaterThan(2);
+    }
+
+    @Test
+    public void givenIdleService_whenFastCompletions_thenKeepLimit(){
+        //given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, THRESHOLD, 0.5);
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(THRESHOLD / 2);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void givenLimitReached_whenAcquire_thenReject(){
+        //given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 100, THRESHOLD, 0.5);
+        limit.tryAcquire();
+
+        //when
+        boolean admitted = limit.tryAcquire();
+
+        //then
+        assertThat(admitted).isFalse();
+    }
+
+    @Test
+    public void givenUnmeasuredRelease_whenReleased_thenFreePermitAndKeepLimit(){
+        //given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 100, THRESHOLD, 0.5);
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        //when
+        limit.release();
+        limit.release();
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(2);
+        assertThat(limit.getInFlight()).isZero();
+    }
+}
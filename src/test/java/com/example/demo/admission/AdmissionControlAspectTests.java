@@ -0,0 +1,165 @@
+package com.example.demo.admission;
+
+import com.example.demo.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdmissionControlAspectTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdaptiveConcurrencyLimit adaptiveLimit;
+
+    private Endpoints endpoints;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        adaptiveLimit = new AdaptiveConcurrencyLimit(2, 1, 10, Duration.ofMillis(50).toNanos(), 0.5);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(AdmissionControlAspect.BULKHEAD_PROPERTY_PREFIX + "list", "1")
+                .withProperty(AdmissionControlAspect.BULKHEAD_PROPERTY_PREFIX + "default", "5");
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Endpoints());
+        proxyFactory.addAspect(new AdmissionControlAspect(meterRegistry, environment, adaptiveLimit, Duration.ofSeconds(2)));
+        endpoints = proxyFactory.getProxy();
+    }
+
+    @Test
+    public void givenFullBulkhead_whenInvoked_thenRejectWith429AndRetryAfter(){
+        //given
+        Supplier<Object> nested = () -> endpoints.list(() -> "inner");
+
+        //when
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> endpoints.list(nested));
+
+        //then
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".rejected")
+                .tag("bulkhead", "list").tag("reason", "bulkhead").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "list").gauge().value()).isZero();
+        assertThat(adaptiveLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void givenReachedAdaptiveLimit_whenInvoked_thenRejectWith503(){
+        //given
+        Supplier<Object> nested = () -> endpoints.lookup(() -> endpoints.lookup(() -> "innermost"));
+
+        //when
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> endpoints.lookup(nested));
+
+        //then
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".rejected")
+                .tag("bulkhead", "all").tag("reason", "limit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "lookup").gauge().value()).isZero();
+        assertThat(adaptiveLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void givenStreamingBody_whenInvoked_thenHoldPermitUntilWritten() throws Exception {
+        //given
+        ResponseEntity<StreamingResponseBody> response = endpoints.export();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        double inFlightBeforeWrite = meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "export").gauge().value();
+        response.getBody().writeTo(out);
+
+        //then
+        assertThat(inFlightBeforeWrite).isEqualTo(1);
+        assertThat(out.toString()).isEqualTo("streamed");
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "export").gauge().value()).isZero();
+        assertThat(adaptiveLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void givenSlowlyStreamedBody_whenWritten_thenLeaveAdaptiveLimitAlone() throws Exception {
+        //given
+        ResponseEntity<StreamingResponseBody> response = endpoints.export();
+        Thread.sleep(100);
+
+        //when
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        //then
+        assertThat(adaptiveLimit.getLimit()).isEqualTo(2);
+        assertThat(adaptiveLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void givenAsyncResult_whenInvoked_thenHoldPermitUntilCompleted(){
+        //given
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        endpoints.lookupAsync(pending);
+
+        //when
+        double inFlightBeforeCompletion = meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "lookup").gauge().value();
+        pending.complete("done");
+
+        //then
+        assertThat(inFlightBeforeCompletion).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "lookup").gauge().value()).isZero();
+        assertThat(adaptiveLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void givenFailedAsyncResult_whenCompleted_thenReleasePermit(){
+        //given
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        endpoints.lookupAsync(pending);
+
+        //when
+        pending.completeExceptionally(new IllegalStateException("query failed"));
+
+        //then
+        assertThat(meterRegistry.get(AdmissionControlAspect.METRIC_NAME + ".inflight")
+                .tag("bulkhead", "lookup").gauge().value()).isZero();
+        assertThat(adaptiveLimit.getInFlight()).isZero();
+    }
+
+    public static class Endpoints {
+
+        @Bulkhead("list")
+        public Object list(Supplier<Object> body){
+            return body.get();
+        }
+
+        @Bulkhead("lookup")
+        public Object lookup(Supplier<Object> body){
+            return body.get();
+        }
+
+        @Bulkhead("lookup")
+        public CompletableFuture<Object> lookupAsync(CompletableFuture<Object> result){
+            return result;
+        }
+
+        @Bulkhead("export")
+        public ResponseEntity<StreamingResponseBody> export(){
+            return ResponseEntity.ok(outputStream -> outputStream.write("streamed".getBytes()));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.AdmissionControlConfig;
+import com.example.demo.config.AsyncControllerConfig;
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(properties = {
+        "employees.async.enabled=true",
+        "employees.admission.enabled=true",
+        "employees.admission.adaptive.enabled=false",
+        "employees.admission.bulkhead.lookup=1"
+})
+@Import({AsyncControllerConfig.class, AdmissionControlConfig.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+public class AsyncAdmissionControlTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @Test
+    public void givenLookupRunningOnExecutor_whenGetEmployeeById_thenShedBeforeQueueing() throws Exception {
+        //given - the only lookup permit is held by a request whose query has not finished
+        CountDownLatch release = new CountDownLatch(1);
+        Employee employee = Employee.builder().id(1L).firstName("Mustafa").lastName("Güler").email("mus@hotmail.com").build();
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            release.await();
+            return Optional.of(employee);
+        });
+        MvcResult running = mockMvc.perform(get("/api/employees/{id}",1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when - then
+        mockMvc.perform(get("/api/employees/{id}",1L)).andExpect(status().isTooManyRequests());
+        release.countDown();
+        mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+        // the permit came back with the completed future, and the delegated call took none of its own
+        MvcResult next = mockMvc.perform(get("/api/employees/{id}",1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(next)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.AsyncControllerConfig;
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(properties = {
+        "employees.async.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "employees.async.queue-capacity=1"
+})
+@Import({AsyncControllerConfig.class, AsyncEmployeeControllerTests.MetricsConfig.class})
+public class AsyncEmployeeControllerTests {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ThreadPoolExecutor employeeDbExecutor;
+
+    @Test
+    public void givenAsyncMode_whenGetEmployeeById_thenServeFromDbExecutor() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Mustafa").lastName("Güler").email("mus@hotmail.com").build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees/{id}",1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName",CoreMatchers.is("Mustafa")));
+    }
+
+    @Test
+    public void givenAsyncMode_whenEmployeeMissing_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeById(2L)).willReturn(Optional.empty());
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees/{id}",2L)).andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenSaturatedExecutor_whenGetEmployeeById_thenShedWithServiceUnavailable() throws Exception {
+        //given - one worker busy and the one queue slot taken
+        CountDownLatch release = new CountDownLatch(1);
+        employeeDbExecutor.execute(() -> awaitQuietly(release));
+        employeeDbExecutor.execute(() -> awaitQuietly(release));
+
+        try {
+            //when - then
+            mockMvc.perform(get("/api/employees/{id}",1L))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER,"1"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void givenAsyncMode_whenGetExport_thenFallThroughToEmployeeController() throws Exception {
+        //given - precondition or setup
+        given(employeeService.exportEmployees(any())).willReturn(0L);
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees/export")).andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(EmployeeController.APPLICATION_NDJSON_VALUE));
+    }
+
+    @Test
+    public void givenAsyncMode_whenGetNonNumericSubpath_thenFallThroughToEmployeeController() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeSummaryByEmail("mus@hotmail.com"))
+                .willReturn(Optional.of(new EmployeeSummary(1L,"Mustafa","Güler","mus@hotmail.com")));
+
+        //when - then
+        mockMvc.perform(get("/api/employees/summaries").param("email","mus@hotmail.com"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName",CoreMatchers.is("Mustafa")));
+    }
+
+    @Test
+    public void givenAsyncMode_whenGetEmployeesByIds_thenServeBatchNotPage() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeesByIds(List.of(1L)))
+                .willReturn(new EmployeeBatch(List.of(),List.of(1L)));
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees").param("ids","1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds[0]",CoreMatchers.is(1)));
+    }
+}
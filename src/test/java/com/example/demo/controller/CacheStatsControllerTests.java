@@ -0,0 +1,42 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.Impl.EmployeeCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheStatsController.class)
+public class CacheStatsControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeCache employeeCache;
+
+    @Test
+    public void givenEmployeeCache_whenGetCacheStats_thenReturnCounters() throws Exception {
+        //given - precondition or setup
+        given(employeeCache.stats()).willReturn(CacheStats.of(7,3,3,0,0,2,2));
+        given(employeeCache.size()).willReturn(5L);
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/cache/stats"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employeeCache.hits",CoreMatchers.is(7)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employeeCache.misses",CoreMatchers.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employeeCache.evictions",CoreMatchers.is(2)));
+    }
+}
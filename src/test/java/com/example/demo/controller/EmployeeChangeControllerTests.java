@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.EmployeeChange;
+import com.example.demo.service.Impl.EmployeeChangeFeed;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = EmployeeChangeController.class, properties = "employees.changes.enabled=true")
+public class EmployeeChangeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeChangeFeed changeFeed;
+
+    @Test
+    public void givenPosition_whenGetChanges_thenReturnNextBatchAndItsLastSeq() throws Exception {
+        //given
+        given(changeFeed.getHead()).willReturn(12L);
+        given(changeFeed.getBatchSize()).willReturn(500);
+        given(changeFeed.isRetained(anyLong())).willReturn(true);
+        EmployeeChange change = EmployeeChange.builder().seq(8L).type(EmployeeChange.Type.DELETED).employeeId(3L)
+                .changedAt(Instant.now()).build();
+        given(changeFeed.getChangesAfter(7L, 500)).willReturn(List.of(change));
+
+        //when - then
+        mockMvc.perform(get("/api/employees/changes").param("after", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type", CoreMatchers.is("DELETED")))
+                .andExpect(jsonPath("$.changes[0].id").doesNotExist())
+                .andExpect(jsonPath("$.lastSeq", CoreMatchers.is(8)))
+                .andExpect(jsonPath("$.headSeq", CoreMatchers.is(12)));
+        mockMvc.perform(get("/api/employees/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastSeq", CoreMatchers.is(12)));
+    }
+
+    @Test
+    public void givenPurgedPosition_whenStreamChanges_thenReturn410() throws Exception {
+        //given
+        given(changeFeed.isRetained(anyLong())).willReturn(false);
+
+        //when - then
+        mockMvc.perform(get("/api/employees/changes").header(EmployeeChangeController.LAST_EVENT_ID, "3")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isGone());
+        verify(changeFeed, never()).subscribe(anyLong());
+    }
+
+    @Test
+    public void givenLastEventId_whenStreamChanges_thenResumeFromItOverAfter() throws Exception {
+        //given
+        given(changeFeed.isRetained(anyLong())).willReturn(true);
+        given(changeFeed.subscribe(anyLong())).willReturn(new SseEmitter());
+
+        //when
+        mockMvc.perform(get("/api/employees/changes").param("after", "2").header(EmployeeChangeController.LAST_EVENT_ID, "40")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        //then
+        verify(changeFeed).subscribe(40L);
+    }
+}
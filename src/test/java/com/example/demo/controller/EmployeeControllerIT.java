@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.integration.AbstractionBaseTest;
+import com.example.demo.dto.EmployeePage;
 import com.example.demo.model.Employee;
 import com.example.demo.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -84,14 +85,14 @@ public class EmployeeControllerIT extends AbstractionBaseTest {
         listOfEmployees.add(Employee.builder().firstName("mustafa").lastName("güler").email("mu@hotmail.com").build());
         listOfEmployees.add(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
 
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+        given(employeeService.getEmployeePage(0L,20)).willReturn(new EmployeePage(listOfEmployees,null));
         //when
         ResultActions response = mockMvc.perform(get("/api/employees"));
 
         //then
         response.andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.size()",CoreMatchers.is(listOfEmployees.size())));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees.size()",CoreMatchers.is(listOfEmployees.size())));
     }
 
     @Test
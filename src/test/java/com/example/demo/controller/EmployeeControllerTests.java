@@ -1,8 +1,16 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeCursor;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryPage;
 import com.example.demo.model.Employee;
 import com.example.demo.service.EmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatcher;
@@ -11,8 +19,11 @@ import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -21,11 +32,19 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static net.bytebuddy.matcher.ElementMatchers.is;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -74,14 +93,14 @@ public class EmployeeControllerTests {
         listOfEmployees.add(Employee.builder().firstName("mustafa").lastName("güler").email("mu@hotmail.com").build());
         listOfEmployees.add(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
 
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+        given(employeeService.getEmployeePage(0L,20)).willReturn(new EmployeePage(listOfEmployees,null));
         //when
         ResultActions response = mockMvc.perform(get("/api/employees"));
 
         //then
         response.andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.size()",CoreMatchers.is(listOfEmployees.size())));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees.size()",CoreMatchers.is(listOfEmployees.size())));
     }
 
     @Test
@@ -118,28 +137,574 @@ public class EmployeeControllerTests {
 
         ResultActions response = mockMvc.perform(get("/api/employees/{id}",1L));
     }
-}
 
+    @Test
+    public void givenLimitAndCursor_whenGetAllEmployees_thenReturnPageWithNextCursor() throws Exception {
+        //given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(6L).firstName("mustafa").lastName("güler").email("mu@hotmail.com").build());
+        listOfEmployees.add(Employee.builder().id(7L).firstName("musa").lastName("güler").email("musa@hotmail.com").build());
+
+        given(employeeService.getEmployeePage(5L,2)).willReturn(new EmployeePage(listOfEmployees,EmployeeCursor.encode(7L)));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after",EmployeeCursor.encode(5L))
+                .param("limit","2"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees.size()",CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor",CoreMatchers.is(EmployeeCursor.encode(7L))));
+    }
+
+    @Test
+    public void givenLimitAboveMaximum_whenGetAllEmployees_thenClampToMaxPageSize() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeePage(0L,100)).willReturn(new EmployeePage(new ArrayList<>(),null));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit","100000"));
+
+        //then
+        response.andExpect(status().isOk());
+        verify(employeeService).getEmployeePage(0L,100);
+    }
+
+    @Test
+    public void givenMalformedCursor_whenGetAllEmployees_thenReturnBadRequest() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("after","not-a-cursor"));
+
+        //then
+        response.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamOneJsonObjectPerLine() throws Exception {
+        //given - precondition or setup
+        Employee employee1 = Employee.builder().id(1L).firstName("mustafa").lastName("güler").email("mu@hotmail.com").build();
+        Employee employee2 = Employee.builder().id(2L).firstName("musa").lastName("güler").email("musa@hotmail.com").build();
+
+        given(employeeService.exportEmployees(ArgumentMatchers.any())).willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee1);
+            consumer.accept(employee2);
+            return 2L;
+        });
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //then
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(EmployeeController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[1], Employee.class).getEmail()).isEqualTo("musa@hotmail.com");
+    }
+
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
+        //given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().firstName("mustafa").lastName("güler").email("mu@hotmail.com").build());
+        listOfEmployees.add(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
+
+        given(employeeService.saveEmployees(ArgumentMatchers.anyList())).willAnswer((invocation)->invocation.getArgument(0));
+
+        //when
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        //then
+        response.andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()",CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].email",CoreMatchers.is("musa@hotmail.com")));
+    }
+
+    @Test
+    public void givenName_whenSearchEmployees_thenReturnSummaryPage() throws Exception {
+        //given - precondition or setup
+        given(employeeService.searchEmployees("Mustafa","Güler",0L,20))
+                .willReturn(new EmployeeSummaryPage(List.of(new EmployeeSummary(1L,"Mustafa","Güler","mus@hotmail.com")),
+                        EmployeeCursor.encode(1L)));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("firstName","Mustafa")
+                .param("lastName","Güler"));
 
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()",CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.employees[0].email",CoreMatchers.is("mus@hotmail.com")))
+                .andExpect(jsonPath("$.nextCursor",CoreMatchers.is(EmployeeCursor.encode(1L))));
+    }
 
+    @Test
+    public void givenCursorAndLargeLimit_whenSearchEmployees_thenResumeAfterCursorWithClampedLimit() throws Exception {
+        //given - precondition or setup
+        given(employeeService.searchEmployees(null,"Güler",7L,100))
+                .willReturn(new EmployeeSummaryPage(List.of(),null));
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("lastName","Güler")
+                .param("after",EmployeeCursor.encode(7L))
+                .param("limit","1000"));
 
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()",CoreMatchers.is(0)));
+    }
 
+    @Test
+    public void givenNoLastName_whenSearchEmployees_thenReturnBadRequest() throws Exception {
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("firstName","Mustafa"));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenMissingEmail_whenGetEmployeeSummaryByEmail_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeSummaryByEmail("none@hotmail.com")).willReturn(Optional.empty());
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/summaries").param("email","none@hotmail.com"));
 
+        //then - verify the output
+        response.andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenQuery_whenSuggestEmployees_thenReturnTopResults() throws Exception {
+        //given - precondition or setup
+        given(employeeService.suggestEmployees("mus",10))
+                .willReturn(List.of(new EmployeeSummary(1L,"Mustafa","Güler","mus@hotmail.com")));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/suggest").param("q","mus"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()",CoreMatchers.is(1)))
+                .andExpect(jsonPath("$[0].firstName",CoreMatchers.is("Mustafa")));
+    }
+
+    @Test
+    public void givenBlankQuery_whenSuggestEmployees_thenReturnEmptyListWithoutLookup() throws Exception {
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/suggest").param("q"," "));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()",CoreMatchers.is(0)));
+        verify(employeeService, never()).suggestEmployees(ArgumentMatchers.anyString(),ArgumentMatchers.anyInt());
+    }
 
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenReturnBatch() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(3L).firstName("Mustafa").lastName("Güler").email("mus@hotmail.com").build();
+        given(employeeService.getEmployeesByIds(List.of(3L,4L)))
+                .willReturn(new EmployeeBatch(List.of(employee),List.of(4L)));
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids","3,4"));
 
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()",CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.employees[0].id",CoreMatchers.is(3)))
+                .andExpect(jsonPath("$.missingIds[0]",CoreMatchers.is(4)));
+    }
 
+    @Test
+    public void givenIdsBody_whenLookupEmployees_thenReturnBatch() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeesByIds(List.of(7L)))
+                .willReturn(new EmployeeBatch(List.of(),List.of(7L)));
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[7]"));
 
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.missingIds[0]",CoreMatchers.is(7)));
+    }
 
+    @Test
+    public void givenTooManyIds_whenLookupEmployees_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesByIds(ArgumentMatchers.anyCollection());
+    }
 
+    @Test
+    public void givenNullId_whenLookupEmployees_thenReturnBadRequest() throws Exception {
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, null]"));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesByIds(ArgumentMatchers.anyCollection());
+    }
 
+    @Test
+    public void givenEmployee_whenGetEmployeeById_thenReturnVersionETag() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Mustafa").lastName("Güler").email("mus@hotmail.com").version(3L).build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}",1L));
 
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"3\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY,HttpHeaders.ACCEPT))
+                .andExpect(jsonPath("$.version",CoreMatchers.is(3)));
+    }
 
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenNotModifiedWithoutLoadingEmployee() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getCachedEmployeeVersion(1L)).willReturn(Optional.of(3L));
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}",1L).header(HttpHeaders.IF_NONE_MATCH,"\"2\", W/\"3\""));
 
+        //then - verify the output
+        response.andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        verify(employeeService, never()).getEmployeeById(ArgumentMatchers.anyLong());
+    }
 
+    @Test
+    public void givenUnchangedTable_whenGetAllEmployees_thenNotModifiedWithoutQuery() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeesVersion()).willReturn("epoch-7");
 
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH,"\"epoch-7\""));
+
+        //then - verify the output
+        response.andExpect(status().isNotModified());
+        verify(employeeService, never()).getEmployeePage(ArgumentMatchers.anyLong(),ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(4L));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Mustafa\",\"lastName\":\"Güler\",\"email\":\"mus@hotmail.com\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"4\""));
+        verify(employeeService, never()).updateEmployee(ArgumentMatchers.any(Employee.class));
+    }
+
+    @Test
+    public void givenMatchingIfMatch_whenUpdateEmployee_thenUpdateAtThatVersion() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+        given(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class)))
+                .willAnswer(invocation -> ((Employee) invocation.getArgument(0)).toBuilder().version(4L).build());
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Mustafa\",\"lastName\":\"Güler\",\"email\":\"mus@hotmail.com\",\"version\":99}"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"4\""))
+                .andExpect(jsonPath("$.id",CoreMatchers.is(1)));
+        verify(employeeService).updateEmployee(ArgumentMatchers.argThat(employee -> employee.getId() == 1L && employee.getVersion() == 3L));
+    }
+
+    @Test
+    public void givenWeakIfMatch_whenUpdateEmployee_thenPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Mustafa\",\"lastName\":\"Güler\",\"email\":\"mus@hotmail.com\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed());
+        verify(employeeService, never()).updateEmployee(ArgumentMatchers.any(Employee.class));
+    }
+
+    @Test
+    public void givenWeakIfMatch_whenPatchEmployee_thenPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"W/\"3\"")
+                .contentType(EmployeeController.MERGE_PATCH_JSON)
+                .content("{\"firstName\":\"Musa\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed());
+        verify(employeeService, never()).patchEmployee(ArgumentMatchers.anyLong(),ArgumentMatchers.anyMap(),ArgumentMatchers.any());
+    }
+
+    @Test
+    public void givenConcurrentUpdate_whenUpdateEmployee_thenPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+        given(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Mustafa\",\"lastName\":\"Güler\",\"email\":\"mus@hotmail.com\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void givenMergePatch_whenPatchEmployee_thenReturnPatchedEmployeeWithETag() throws Exception {
+        //given - precondition or setup
+        Employee patched = Employee.builder().id(1L).firstName("Musa").lastName("Güler").email("mus@hotmail.com").version(4L).build();
+        given(employeeService.patchEmployee(1L, Map.of("firstName","Musa"), 3L)).willReturn(Optional.of(patched));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"\"3\"")
+                .contentType(EmployeeController.MERGE_PATCH_JSON)
+                .content("{\"firstName\":\"Musa\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"4\""))
+                .andExpect(jsonPath("$.firstName",CoreMatchers.is("Musa")));
+    }
+
+    @Test
+    public void givenOneFieldAndReturnMinimal_whenPatchEmployee_thenSingleStatementUpdateAndNoContent() throws Exception {
+        //given - precondition or setup
+        given(employeeService.patchEmployeeField(1L, "email", "musa@hotmail.com", 3L)).willReturn(true);
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"\"3\"")
+                .header("Prefer","return=minimal")
+                .contentType(EmployeeController.MERGE_PATCH_JSON)
+                .content("{\"email\":\"musa@hotmail.com\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isNoContent())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"4\""))
+                .andExpect(MockMvcResultMatchers.header().string("Preference-Applied","return=minimal"));
+        verify(employeeService, never()).patchEmployee(ArgumentMatchers.anyLong(),ArgumentMatchers.anyMap(),ArgumentMatchers.any());
+    }
+
+    @Test
+    public void givenNullOrUnknownMember_whenPatchEmployee_thenReturnBadRequest() throws Exception {
+        //when - then
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",1L)
+                .contentType(EmployeeController.MERGE_PATCH_JSON)
+                .content("{\"email\":null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",1L)
+                .contentType(EmployeeController.MERGE_PATCH_JSON)
+                .content("{\"version\":7}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    public void givenStaleIfMatch_whenPatchEmployee_thenPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        given(employeeService.patchEmployee(1L, Map.of("lastName","Gül"), 3L))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"\"3\"")
+                .contentType(EmployeeController.MERGE_PATCH_JSON)
+                .content("{\"lastName\":\"Gül\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenNoContentOrNotFound() throws Exception {
+        //given - precondition or setup
+        given(employeeService.deleteEmployee(1L)).willReturn(true);
+        given(employeeService.deleteEmployee(2L)).willReturn(false);
+
+        //when - then
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}",1L))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}",2L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        //given - precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L,2L,3L))).willReturn(2);
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees").param("ids","1,2,3"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted",CoreMatchers.is(2)));
+    }
+
+    @Test
+    public void givenTooManyIds_whenDeleteEmployees_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        String ids = LongStream.rangeClosed(1, 1001).mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        //when - then
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees").param("ids",ids))
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).deleteEmployees(ArgumentMatchers.anyCollection());
+    }
+
+    @Test
+    public void givenEmptyIdInList_whenDeleteEmployees_thenReturnBadRequest() throws Exception {
+        //when - then
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees").param("ids","1,,2"))
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).deleteEmployees(ArgumentMatchers.anyCollection());
+    }
+
+    @Test
+    public void givenCborAccept_whenGetAllEmployees_thenReturnCborPage() throws Exception {
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(Employee.builder().id(1L).firstName("mustafa").lastName("güler").email("mu@hotmail.com").build());
+        given(employeeService.getEmployeesVersion()).willReturn("v-1");
+        given(employeeService.getEmployeePage(0L,20)).willReturn(new EmployeePage(listOfEmployees,null));
+
+        //when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY,HttpHeaders.ACCEPT))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"W/\"v-1\""))
+                .andReturn();
+
+        //then - verify the output
+        JsonNode page = new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertThat(page.get("employees").get(0).get("lastName").asText()).isEqualTo("güler");
+    }
+
+    @Test
+    public void givenSmileAccept_whenGetAllEmployees_thenReturnSmilePage() throws Exception {
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(Employee.builder().id(1L).firstName("mustafa").lastName("güler").email("mu@hotmail.com").build());
+        given(employeeService.getEmployeesVersion()).willReturn("v-1");
+        given(employeeService.getEmployeePage(0L,20)).willReturn(new EmployeePage(listOfEmployees,null));
+
+        //when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/employees").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-jackson-smile"))
+                .andReturn();
+
+        //then - verify the output
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertThat(page.get("employees").get(0).get("email").asText()).isEqualTo("mu@hotmail.com");
+    }
+
+    @Test
+    public void givenCborAccept_whenGetEmployeeById_thenNegotiateOutsideJsonPath() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Mustafa").lastName("Güler").email("mus@hotmail.com").build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}",1L).accept(MediaType.APPLICATION_CBOR));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    public void givenCborAccept_whenGetEmployeeById_thenReturnCborETag() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Mustafa").lastName("Güler").email("mus@hotmail.com").version(3L).build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        given(employeeService.getCachedEmployeeVersion(1L)).willReturn(Optional.of(3L));
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}",1L).accept(MediaType.APPLICATION_CBOR));
+        // the JSON tag of the same version must not revalidate a CBOR copy
+        ResultActions revalidated = mockMvc.perform(get("/api/employees/{id}",1L).accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH,"\"3\""));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,"\"3-cbor\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY,HttpHeaders.ACCEPT));
+        revalidated.andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    public void givenCborETag_whenUpdateEmployee_thenUpdateAtThatVersion() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+        given(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class)))
+                .willAnswer(invocation -> ((Employee) invocation.getArgument(0)).toBuilder().version(4L).build());
+
+        //when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",1L)
+                .header(HttpHeaders.IF_MATCH,"\"3-cbor\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Mustafa\",\"lastName\":\"Güler\",\"email\":\"mus@hotmail.com\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isOk());
+        verify(employeeService).updateEmployee(ArgumentMatchers.argThat(employee -> employee.getVersion() == 3L));
+    }
+}
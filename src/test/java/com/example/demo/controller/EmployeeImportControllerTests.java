@@ -0,0 +1,77 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.EmployeeService;
+import com.example.demo.service.Impl.EmployeeImportPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = EmployeeImportController.class, properties = "employees.import.enabled=true")
+@Import({EmployeeImportPipeline.class, SimpleMeterRegistry.class})
+public class EmployeeImportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @Test
+    public void givenGzippedCsv_whenImport_thenCreateJobAndReportIt() throws Exception {
+        //given
+        given(employeeService.getExistingEmails(anyCollection())).willReturn(Set.of());
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write("firstName,lastName,email\nmustafa,güler,mus@hotmail.com\nmustafa,güler,\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        //when
+        MvcResult result = mockMvc.perform(post("/api/employees/imports")
+                        .contentType("text/csv")
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzipped.toByteArray()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.state", CoreMatchers.is("COMPLETED")))
+                .andExpect(jsonPath("$.imported", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.errors[0].row", CoreMatchers.is(2)))
+                .andReturn();
+
+        //then
+        mockMvc.perform(get(result.getResponse().getHeader(HttpHeaders.LOCATION)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected", CoreMatchers.is(1)));
+    }
+
+    @Test
+    public void givenCsvWithoutRequiredColumns_whenImport_thenReturn400() throws Exception {
+        //when - then
+        mockMvc.perform(post("/api/employees/imports")
+                        .contentType("text/csv")
+                        .content("name\nmustafa\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/employees/imports/unknown"))
+                .andExpect(status().isNotFound());
+    }
+}
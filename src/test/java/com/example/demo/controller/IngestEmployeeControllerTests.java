@@ -0,0 +1,65 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.IngestControllerConfig;
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import com.example.demo.service.Impl.EmployeeIngestQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(properties = {
+        "employees.ingest.enabled=true",
+        "employees.ingest.max-wait=0ms"
+})
+@Import({IngestControllerConfig.class, EmployeeIngestQueue.class, SimpleMeterRegistry.class})
+public class IngestEmployeeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @Test
+    public void givenIngestMode_whenCreateEmployee_thenSaveThroughQueuedBatch() throws Exception {
+        //given - precondition or setup
+        given(employeeService.saveEmployees(ArgumentMatchers.anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            return employees.stream().map(employee -> employee.toBuilder().id(7L).build()).collect(Collectors.toList());
+        });
+
+        //when
+        MvcResult result = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Mustafa\",\"lastName\":\"Güler\",\"email\":\"mus@hotmail.com\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id",CoreMatchers.is(7)));
+        verify(employeeService, never()).saveEmployee(ArgumentMatchers.any(Employee.class));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.ReactiveEmployeeServer;
+import com.example.demo.model.Employee;
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReactiveEmployeeHandlerTests {
+
+    private DatabaseClient databaseClient;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setup(){
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///reactive-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        databaseClient = DatabaseClient.create(connectionFactory);
+        // same column names Hibernate generates for the Employee entity
+        databaseClient.sql("create table employees (id bigint primary key, first_name varchar(255) not null, " +
+                "last_name varchar(255) not null, email varchar(255) not null)").then().block();
+
+        ReactiveEmployeeRepository employeeRepository = ReactiveEmployeeServer.createRepository(connectionFactory);
+
+        webTestClient = WebTestClient.bindToRouterFunction(
+                ReactiveEmployeeHandler.routes(new ReactiveEmployeeHandler(employeeRepository))).build();
+    }
+
+    private void insert(long id, String firstName, String lastName, String email){
+        databaseClient.sql("insert into employees (id, first_name, last_name, email) values (:id, :firstName, :lastName, :email)")
+                .bind("id", id)
+                .bind("firstName", firstName)
+                .bind("lastName", lastName)
+                .bind("email", email)
+                .then().block();
+    }
+
+    @Test
+    public void givenEmployees_whenGetAllEmployees_thenStreamNdjsonInIdOrder(){
+        //given - precondition or setup
+        insert(2L,"Tony","Stark","tony@gmail.com");
+        insert(1L,"Ramesh","Fadatare","ramesh@gmail.com");
+
+        //when
+        List<Employee> employees = webTestClient.get().uri("/api/employees")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Employee.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        //then
+        assertThat(employees).extracting(Employee::getId).containsExactly(1L, 2L);
+        assertThat(employees.get(0).getFirstName()).isEqualTo("Ramesh");
+        assertThat(employees.get(1).getEmail()).isEqualTo("tony@gmail.com");
+    }
+
+    @Test
+    public void givenJsonAccept_whenGetAllEmployees_thenReturnJsonArray(){
+        //given - precondition or setup
+        insert(1L,"Ramesh","Fadatare","ramesh@gmail.com");
+
+        //when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].lastName").isEqualTo("Fadatare");
+    }
+
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee(){
+        //given - precondition or setup
+        insert(7L,"Ramesh","Fadatare","ramesh@gmail.com");
+
+        //when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 7L).exchange();
+
+        //then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(7)
+                .jsonPath("$.firstName").isEqualTo("Ramesh")
+                .jsonPath("$.email").isEqualTo("ramesh@gmail.com");
+    }
+
+    @Test
+    public void givenMissingEmployeeId_whenGetEmployeeById_thenReturnNotFound(){
+        //given - precondition or setup
+        long employeeId = 42L;
+
+        //when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", employeeId).exchange();
+
+        //then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenNonNumericId_whenGetEmployeeById_thenReturnBadRequest(){
+        //when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/abc").exchange();
+
+        //then - verify the output
+        response.expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTests {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setup(){
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void cleanup(){
+        ReadWriteRoutingDataSource.unpin();
+    }
+
+    @Test
+    public void givenReadOnlyTransaction_whenQuery_thenReadFromReplica(){
+        //when
+        String source = readOnly.execute(status -> source());
+
+        //then
+        assertThat(source).isEqualTo("replica");
+    }
+
+    @Test
+    public void givenReadWriteTransactionOrNone_whenQuery_thenUsePrimary(){
+        //when
+        String inTransaction = readWrite.execute(status -> source());
+        String withoutTransaction = source();
+
+        //then
+        assertThat(inTransaction).isEqualTo("primary");
+        assertThat(withoutTransaction).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenPinnedToPrimary_whenReadOnlyTransaction_thenReadFromPrimary(){
+        //given
+        ReadWriteRoutingDataSource.pinToPrimary();
+
+        //when
+        String source = readOnly.execute(status -> source());
+
+        //then
+        assertThat(source).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenPinnedToPrimary_whenTaskRunsOnAnotherThread_thenPinTravelsWithIt() throws Exception {
+        //given
+        ReadWriteRoutingDataSource.pinToPrimary();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        //when
+        String source;
+        try {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            executor.execute(ReadWriteRoutingDataSource.propagatePin(() -> result.complete(readOnly.execute(status -> source()))));
+            source = result.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        //then
+        assertThat(source).isEqualTo("primary");
+    }
+
+    private String source(){
+        return jdbcTemplate.queryForObject("select name from source", String.class);
+    }
+
+    private static DataSource database(String name){
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table source(name varchar(16))");
+        jdbcTemplate.update("insert into source values (?)", name);
+        return dataSource;
+    }
+}
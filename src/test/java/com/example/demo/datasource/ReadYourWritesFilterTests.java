@@ -0,0 +1,75 @@
+package com.example.demo.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadYourWritesFilterTests {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    public void givenWrite_whenFiltered_thenPinDuringRequestAndSetCookie() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        //when
+        filter.doFilter(request, response, recordPin(pinned));
+
+        //then
+        assertThat(pinned).isTrue();
+        assertThat(ReadWriteRoutingDataSource.isPinnedToPrimary()).isFalse();
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie.getValue())).isGreaterThan(System.currentTimeMillis());
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+    }
+
+    @Test
+    public void givenReadWithinWindow_whenFiltered_thenPinToPrimary() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() + 5000)));
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        //when
+        filter.doFilter(request, new MockHttpServletResponse(), recordPin(pinned));
+
+        //then
+        assertThat(pinned).isTrue();
+    }
+
+    @Test
+    public void givenReadAfterWindowOrWithoutCookie_whenFiltered_thenLeaveUnpinned() throws Exception {
+        //given
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/employees/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() - 1)));
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/api/employees/1");
+        AtomicBoolean expiredPinned = new AtomicBoolean();
+        AtomicBoolean plainPinned = new AtomicBoolean();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        filter.doFilter(expired, response, recordPin(expiredPinned));
+        filter.doFilter(plain, new MockHttpServletResponse(), recordPin(plainPinned));
+
+        //then
+        assertThat(expiredPinned).isFalse();
+        assertThat(plainPinned).isFalse();
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNull();
+    }
+
+    private static FilterChain recordPin(AtomicBoolean pinned){
+        return (request, response) -> pinned.set(ReadWriteRoutingDataSource.isPinnedToPrimary());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.metrics;
+
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import com.example.demo.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeServiceMetricsAspectTests {
+
+    @Mock
+    private EmployeeService target;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new EmployeeServiceMetricsAspect(meterRegistry));
+        employeeService = proxyFactory.getProxy();
+    }
+
+    @Test
+    public void givenServiceCall_whenInvoked_thenRecordTimerPerMethod(){
+        //given
+        given(target.getEmployeeById(1L)).willReturn(Optional.empty());
+
+        //when
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L);
+
+        //then
+        assertThat(meterRegistry.get(EmployeeServiceMetricsAspect.METRIC_NAME)
+                .tag("method","getEmployeeById").tag("exception","none").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFailingServiceCall_whenInvoked_thenTagExceptionAndRethrow(){
+        //given
+        given(target.saveEmployee(any(Employee.class))).willThrow(new ResourceNotFoundException("Employee already exist:m@hotmail.com"));
+
+        //when
+        assertThrows(ResourceNotFoundException.class,()->{
+            employeeService.saveEmployee(new Employee());
+        });
+
+        //then
+        assertThat(meterRegistry.get(EmployeeServiceMetricsAspect.METRIC_NAME)
+                .tag("method","saveEmployee").tag("exception","ResourceNotFoundException").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.repository;
+
+import com.example.demo.config.HibernateCacheConfig;
+import com.example.demo.model.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// read-write regions are only populated on commit, so let every repository call commit on its own
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeRepositoryCacheTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        employee = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("mustafa")
+                .lastName("güler")
+                .email("m@hotmail.com")
+                .build());
+    }
+
+    @AfterEach
+    public void cleanup(){
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void givenSavedEmployee_whenFindById_thenServeFromSecondLevelCache(){
+        //when - action or the behavior that we are going test
+        Employee employeeDb = employeeRepository.findById(employee.getId()).get();
+
+        //then - verify the output
+        assertThat(employeeDb.getEmail()).isEqualTo("m@hotmail.com");
+        assertThat(statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenRepeatedFindByEmail_whenQueryCached_thenSecondCallHitsQueryCache(){
+        //when - action or the behavior that we are going test
+        employeeRepository.findByEmail("m@hotmail.com");
+        employeeRepository.findByEmail("m@hotmail.com");
+
+        //then - verify the output
+        assertThat(statistics.getQueryRegionStatistics(EmployeeRepository.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryRegionStatistics(EmployeeRepository.QUERY_CACHE_REGION).getMissCount()).isEqualTo(1);
+    }
+}
@@ -1,23 +1,40 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryView;
 import com.example.demo.model.Employee;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.repository.EmployeeRepositoryTests$SqlRecorder")
 public class EmployeeRepositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -212,6 +229,276 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee).isNotNull();
 
     }
+
+    @Test
+    public void givenEmployeeList_whenFindPageAfterId_thenReturnNextRowsInIdOrder(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder().firstName("mustafa").lastName("güler").email("m@hotmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
+        Employee employee3 = employeeRepository.save(Employee.builder().firstName("ali").lastName("güler").email("ali@hotmail.com").build());
+
+        //when - action or the behavior that we are going test
+        List<Employee> page = employeeRepository.findPageAfterId(employee1.getId(), PageRequest.of(0,5));
+
+        //then - verify the output
+        assertThat(page).extracting(Employee::getId).containsExactly(employee2.getId(),employee3.getId());
+    }
+
+    @Test
+    public void givenEmployeeList_whenStreamAllOrderById_thenReturnAllRowsInIdOrder(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder().firstName("mustafa").lastName("güler").email("m@hotmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
+
+        //when - action or the behavior that we are going test
+        List<Long> ids;
+        try (Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+            ids = employees.map(Employee::getId).collect(Collectors.toList());
+        }
+
+        //then - verify the output
+        assertThat(ids).containsExactly(employee1.getId(),employee2.getId());
+    }
+
+    @Test
+    public void givenEmployeeList_whenFindByEmailIn_thenReturnMatchingEmployees(){
+        //given - precondition or setup
+        employeeRepository.saveAll(List.of(
+                Employee.builder().firstName("mustafa").lastName("güler").email("m@hotmail.com").build(),
+                Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build()));
+
+        //when - action or the behavior that we are going test
+        List<Employee> employees = employeeRepository.findByEmailIn(List.of("musa@hotmail.com","none@hotmail.com"));
+
+        //then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("musa@hotmail.com");
+    }
+
+    @Test
+    public void givenExistingEmail_whenSaveAndFlush_thenViolateUniqueEmailConstraint(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee duplicate = Employee.builder().firstName("musa").lastName("güler").email(employee.getEmail()).build();
+
+        //when - then
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Employee.EMAIL_UNIQUE_CONSTRAINT.toUpperCase());
+    }
+
+    @Test
+    public void givenEmployeeList_whenFindSummariesByName_thenReturnUnmanagedProjections(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder().firstName("mustafa").lastName("güler").email("m@hotmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder().firstName("mustafa").lastName("güler").email("m2@hotmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        //when - action or the behavior that we are going test
+        List<EmployeeSummary> summaries = employeeRepository.findSummariesByName("mustafa","güler",0L,PageRequest.of(0,5));
+
+        //then - verify the output
+        assertThat(summaries).extracting(EmployeeSummary::getId).containsExactly(employee1.getId(),employee2.getId());
+        assertThat(summaries).extracting(EmployeeSummary::getEmail).containsExactly("m@hotmail.com","m2@hotmail.com");
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenFindSummaryByEmail_thenReturnProjection(){
+        //given - precondition or setup
+        employeeRepository.save(employee);
+
+        //when - action or the behavior that we are going test
+        Optional<EmployeeSummary> summary = employeeRepository.findSummaryByEmail(employee.getEmail());
+
+        //then - verify the output
+        assertThat(summary).isPresent();
+        assertThat(summary.get().getFirstName()).isEqualTo("mustafa");
+        assertThat(employeeRepository.findSummaryByEmail("none@hotmail.com")).isEmpty();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenFindSummariesByNativeSQL_thenReturnInterfaceProjections(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when - action or the behavior that we are going test
+        List<EmployeeSummaryView> summaries = employeeRepository.findSummariesByNativeSQL(employee.getFirstName(),employee.getLastName());
+
+        //then - verify the output
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getId()).isEqualTo(employee.getId());
+        assertThat(summaries.get(0).getLastName()).isEqualTo("güler");
+        assertThat(summaries.get(0).getEmail()).isEqualTo("m@hotmail.com");
+    }
+
+    @Test
+    public void givenSharedLastName_whenFindSummariesByLastName_thenPageAfterId(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder().firstName("mustafa").lastName("güler").email("m@hotmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build());
+        Employee employee3 = employeeRepository.save(Employee.builder().firstName("ali").lastName("güler").email("ali@hotmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("ali").lastName("yılmaz").email("ali2@hotmail.com").build());
+
+        //when - action or the behavior that we are going test
+        List<EmployeeSummary> summaries = employeeRepository.findSummariesByLastName("güler",employee1.getId(),PageRequest.of(0,5));
+
+        //then - verify the output
+        assertThat(summaries).extracting(EmployeeSummary::getId).containsExactly(employee2.getId(),employee3.getId());
+    }
+
+    @Test
+    public void givenNameIndex_whenExplainNameSearches_thenUseIndex(){
+        //when - action or the behavior that we are going test
+        String byName = explainGenerated(() -> employeeRepository.findSummariesByName("mustafa","güler",0L,PageRequest.of(0,5)),
+                "güler","mustafa",0L,5);
+        String byLastName = explainGenerated(() -> employeeRepository.findSummariesByLastName("güler",0L,PageRequest.of(0,5)),
+                "güler",0L,5);
+
+        //then - verify the output
+        assertThat(byName).containsIgnoringCase(Employee.NAME_INDEX);
+        assertThat(byLastName).containsIgnoringCase(Employee.NAME_INDEX);
+    }
+
+    // explains the statement Hibernate generated for the query, select list and limit included; the
+    // parameters are bound in the order they appear in it
+    private String explainGenerated(Runnable query, Object... parameters){
+        SqlRecorder.STATEMENTS.clear();
+        query.run();
+        assertThat(SqlRecorder.STATEMENTS).hasSize(1);
+        String sql = SqlRecorder.STATEMENTS.get(0);
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                long placeholders = sql.chars().filter(c -> c == '?').count();
+                for (int i = 0; i < placeholders; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    // registered through hibernate.session_factory.statement_inspector, which takes a class name
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Test
+    public void givenEmployeeList_whenFindSummariesByLastNamePrefix_thenReturnMatchesInNameOrder(){
+        //given - precondition or setup
+        employeeRepository.save(Employee.builder().firstName("mustafa").lastName("güler").email("m@hotmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("ali").lastName("gül").email("ali@hotmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("musa").lastName("yılmaz").email("musa@hotmail.com").build());
+
+        //when - action or the behavior that we are going test
+        List<EmployeeSummary> summaries = employeeRepository.findSummariesByLastNamePrefix("gü",PageRequest.of(0,5));
+
+        //then - verify the output
+        assertThat(summaries).extracting(EmployeeSummary::getLastName).containsExactly("gül","güler");
+    }
+
+    @Test
+    public void givenEscapedWildcard_whenFindSummariesByLastNamePrefix_thenMatchItLiterally(){
+        //given - precondition or setup
+        employeeRepository.save(Employee.builder().firstName("mustafa").lastName("o_neil").email("m@hotmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("ali").lastName("oxneil").email("ali@hotmail.com").build());
+
+        //when - action or the behavior that we are going test
+        List<EmployeeSummary> summaries = employeeRepository.findSummariesByLastNamePrefix("o\\_",PageRequest.of(0,5));
+
+        //then - verify the output
+        assertThat(summaries).extracting(EmployeeSummary::getLastName).containsExactly("o_neil");
+    }
+
+    @Test
+    public void givenUpdatedEmployee_whenFindVersionById_thenReturnIncrementedVersion(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        long initialVersion = employeeRepository.findVersionById(employee.getId()).get();
+
+        //when - action or the behavior that we are going test
+        employee.setFirstName("musa");
+        employeeRepository.saveAndFlush(employee);
+
+        //then - verify the output
+        assertThat(employeeRepository.findVersionById(employee.getId())).contains(initialVersion + 1);
+        assertThat(employeeRepository.findVersionById(-1L)).isEmpty();
+    }
+
+    @Test
+    public void givenStaleVersion_whenSave_thenFailOptimisticLock(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee stale = employee.toBuilder().build();
+        employee.setFirstName("musa");
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+
+        //when - then
+        stale.setFirstName("ali");
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    public void givenEmployee_whenUpdateFirstName_thenChangeOneColumnAndBumpVersion(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        long initialVersion = employee.getVersion();
+
+        //when - action or the behavior that we are going test
+        int stale = employeeRepository.updateFirstName(employee.getId(), "ali", initialVersion + 1);
+        int updated = employeeRepository.updateFirstName(employee.getId(), "musa", initialVersion);
+        entityManager.clear();
+
+        //then - verify the output
+        assertThat(stale).isZero();
+        assertThat(updated).isEqualTo(1);
+        Employee reloaded = employeeRepository.findById(employee.getId()).get();
+        assertThat(reloaded.getFirstName()).isEqualTo("musa");
+        assertThat(reloaded.getLastName()).isEqualTo(employee.getLastName());
+        assertThat(reloaded.getVersion()).isEqualTo(initialVersion + 1);
+    }
+
+    @Test
+    public void givenNoExpectedVersion_whenUpdateEmail_thenUpdateAnyVersion(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when - action or the behavior that we are going test
+        int updated = employeeRepository.updateEmail(employee.getId(), "musa@gmail.com", -1L);
+        entityManager.clear();
+
+        //then - verify the output
+        assertThat(updated).isEqualTo(1);
+        assertThat(employeeRepository.findByEmail("musa@gmail.com")).isPresent();
+    }
+
+    @Test
+    public void givenEmployees_whenDeleteByIds_thenReturnAffectedRows(){
+        //given - precondition or setup
+        Employee other = Employee.builder().firstName("ali").lastName("veli").email("ali@hotmail.com").build();
+        employeeRepository.saveAllAndFlush(List.of(employee, other));
+
+        //when - action or the behavior that we are going test
+        int deleted = employeeRepository.deleteByIds(List.of(employee.getId(), other.getId(), -1L));
+        entityManager.clear();
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(2);
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
 }
 
 /*
@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import com.example.demo.service.Impl.EmailBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmailBloomFilterTests {
+
+    @Test
+    public void givenStoredEmail_whenMightContain_thenReturnTrueIgnoringCase(){
+        //given
+        EmailBloomFilter emailFilter = new EmailBloomFilter(1000,0.01);
+        emailFilter.put("Mustafa@Hotmail.com");
+
+        //when - then
+        assertThat(emailFilter.mightContain("mustafa@hotmail.com")).isTrue();
+    }
+
+    @Test
+    public void givenManyEmails_whenMightContainUnknownEmails_thenFalsePositiveRateStaysNearTarget(){
+        //given
+        EmailBloomFilter emailFilter = new EmailBloomFilter(10_000,0.01);
+        for (int i = 0; i < 10_000; i++) {
+            emailFilter.put("employee" + i + "@hotmail.com");
+        }
+
+        //when
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if(emailFilter.mightContain("stranger" + i + "@hotmail.com")){
+                falsePositives++;
+            }
+        }
+
+        //then
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Employee;
+import com.example.demo.service.Impl.EmployeeCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTests {
+
+    private EmployeeCache employeeCache;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        employeeCache = new EmployeeCache(100, Duration.ofMinutes(10), Duration.ofSeconds(5));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("mustafa")
+                .lastName("güler")
+                .email("mustafa@hotmail.com")
+                .build();
+    }
+
+    @Test
+    public void givenCachedEmployee_whenGet_thenLoadOnceAndReturnCopies(){
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        Employee first = employeeCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(employee); }).get();
+        Employee second = employeeCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(employee); }).get();
+
+        //then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.getEmail()).isEqualTo(employee.getEmail());
+        assertThat(second).isNotSameAs(first).isNotSameAs(employee);
+        assertThat(employeeCache.stats().hitCount()).isEqualTo(1);
+        assertThat(employeeCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenMissingEmployee_whenGet_thenCacheNegativeLookup(){
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        employeeCache.get(2L, id -> { loads.incrementAndGet(); return Optional.empty(); });
+        Optional<Employee> result = employeeCache.get(2L, id -> { loads.incrementAndGet(); return Optional.empty(); });
+
+        //then
+        assertThat(result).isEmpty();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCachedEmployee_whenInvalidate_thenReloadOnNextGet(){
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        employeeCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(employee); });
+
+        //when
+        employeeCache.invalidate(1L);
+        employeeCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(employee); });
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenPartlyCachedIds_whenGetAll_thenLoadOnlyMissesInOneCall(){
+        //given
+        employeeCache.get(1L, id -> Optional.of(employee));
+        Employee other = employee.toBuilder().id(2L).email("other@hotmail.com").build();
+        List<Collection<Long>> loads = new ArrayList<>();
+
+        //when
+        Map<Long, Employee> found = employeeCache.getAll(List.of(1L,2L,3L), ids -> { loads.add(List.copyOf(ids)); return List.of(other); });
+        Map<Long, Employee> again = employeeCache.getAll(List.of(2L,3L), ids -> { loads.add(List.copyOf(ids)); return List.of(); });
+
+        //then
+        assertThat(loads).hasSize(1);
+        assertThat(loads.get(0)).containsExactlyInAnyOrder(2L,3L);
+        assertThat(found).containsOnlyKeys(1L,2L);
+        assertThat(again).containsOnlyKeys(2L);
+        assertThat(again.get(2L)).isNotSameAs(found.get(2L)).isNotSameAs(other);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import com.example.demo.model.EmployeeChange;
+import com.example.demo.service.Impl.EmployeeChangeLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = DemoApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:changes-test;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.changes.enabled=true",
+        "employees.changes.sequence-interval=20ms",
+        "employees.reactive.enabled=false"
+})
+public class EmployeeChangeLogTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeChangeLog changeLog;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void givenEveryKindOfWrite_whenSequenced_thenFeedHasOneChangeEachInCommitOrder() throws Exception {
+        //given
+        long start = changeLog.getHead();
+        Employee saved = employeeService.saveEmployee(employee("feed-a@hotmail.com"));
+        List<Employee> batch = employeeService.saveEmployees(List.of(employee("feed-b@hotmail.com"), employee("feed-c@hotmail.com")));
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee("feed-a@hotmail.com")));
+        saved.setLastName("updated");
+        employeeService.updateEmployee(saved);
+        employeeService.patchEmployee(saved.getId(), Map.of(Employee.FIRST_NAME, "patched"), null);
+        employeeService.patchEmployeeField(saved.getId(), Employee.EMAIL, "feed-z@hotmail.com", null);
+        employeeService.deleteEmployee(batch.get(0).getId());
+        employeeService.deleteEmployees(List.of(batch.get(0).getId(), batch.get(1).getId(), 999_999L));
+
+        //when
+        List<EmployeeChange> changes = awaitChanges(start, 8);
+
+        //then
+        assertThat(changes).extracting(EmployeeChange::getSeq)
+                .containsExactly(start + 1, start + 2, start + 3, start + 4, start + 5, start + 6, start + 7, start + 8);
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(
+                EmployeeChange.Type.CREATED, EmployeeChange.Type.CREATED, EmployeeChange.Type.CREATED,
+                EmployeeChange.Type.UPDATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.UPDATED,
+                EmployeeChange.Type.DELETED, EmployeeChange.Type.DELETED);
+        assertThat(changes).extracting(EmployeeChange::getVersion).containsExactly(0L, 0L, 0L, 1L, 2L, 3L, null, null);
+        EmployeeChange emailPatch = changes.get(5);
+        assertThat(emailPatch.getEmail()).isEqualTo("feed-z@hotmail.com");
+        assertThat(emailPatch.getFirstName()).isEqualTo("patched");
+        assertThat(changes.get(7).getEmployeeId()).isEqualTo(batch.get(1).getId());
+    }
+
+    @Test
+    public void givenStreamFromHead_whenEmployeeSaved_thenPushChangeWithItsSeqAsEventId() throws Exception {
+        //given
+        long head = changeLog.getHead();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees/changes?after=" + head))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        Iterator<String> lines = response.body().iterator();
+        assertThat(nextValue(lines, "event:")).isEqualTo("head");
+
+        //when
+        Employee saved = employeeService.saveEmployee(employee("feed-stream@hotmail.com"));
+
+        //then
+        assertThat(nextValue(lines, "event:")).isEqualTo("changes");
+        assertThat(nextValue(lines, "id:")).isEqualTo(Long.toString(head + 1));
+        assertThat(nextValue(lines, "data:")).contains("\"employeeId\":" + saved.getId(), "\"type\":\"CREATED\"");
+        response.body().close();
+        employeeService.deleteEmployee(saved.getId());
+        awaitChanges(head, 2);
+    }
+
+    private List<EmployeeChange> awaitChanges(long afterSeq, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (changeLog.getHead() < afterSeq + count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return changeLog.getChangesAfter(afterSeq, count + 1);
+    }
+
+    private static String nextValue(Iterator<String> lines, String field){
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if(line.startsWith(field)){
+                return line.substring(field.length());
+            }
+        }
+        throw new AssertionError("Stream ended before " + field);
+    }
+
+    private static Employee employee(String email){
+        return Employee.builder()
+                .firstName("mustafa")
+                .lastName("güler")
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.Employee;
+import com.example.demo.model.EmployeeChange;
+import com.example.demo.service.Impl.EmployeeChangeLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// a second application context on the same database stands in for another instance. Sequencing runs
+// seconds apart, so both updates are usually still unnumbered when this instance numbers them together.
+// Without caches, which would hold the row as it was before the other instance's write
+@SpringBootTest(classes = DemoApplication.class, properties = {
+        "spring.datasource.url=" + EmployeeChangeOrderTests.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.changes.enabled=true",
+        "employees.changes.sequence-interval=2s",
+        "employees.cache.enabled=false",
+        "employees.l2-cache.enabled=false",
+        "employees.reactive.enabled=false"
+})
+public class EmployeeChangeOrderTests {
+
+    static final String URL = "jdbc:h2:mem:changes-order-test;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeChangeLog changeLog;
+
+    @Test
+    public void givenUpdatesOnTwoInstances_whenSequenced_thenFeedKeepsEmployeeVersionOrder() throws InterruptedException {
+        //given - with pooled ids, two saves leave this instance a block of ids below the other instance's
+        employeeService.saveEmployee(Employee.builder().firstName("mustafa").lastName("güler").email("order-other@hotmail.com").build());
+        Employee saved = employeeService.saveEmployee(Employee.builder().firstName("mustafa").lastName("güler").email("order@hotmail.com").build());
+        long id = saved.getId();
+        try (ConfigurableApplicationContext other = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--employees.changes.enabled=true",
+                        "--employees.changes.sequence-interval=1h",
+                        "--employees.cache.enabled=false",
+                        "--employees.l2-cache.enabled=false",
+                        "--employees.reactive.enabled=false")) {
+            other.getBean(EmployeeService.class).patchEmployeeField(id, Employee.LAST_NAME, "other", null);
+
+            //when
+            employeeService.patchEmployeeField(id, Employee.LAST_NAME, "here", null);
+        }
+
+        //then
+        List<EmployeeChange> changes = awaitChanges(id, 3);
+        assertThat(changes).extracting(EmployeeChange::getVersion).containsExactly(0L, 1L, 2L);
+        assertThat(changes).extracting(EmployeeChange::getLastName).containsExactly("güler", "other", "here");
+    }
+
+    // the employee's changes in feed order
+    private List<EmployeeChange> awaitChanges(long employeeId, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<EmployeeChange> changes;
+        do {
+            Thread.sleep(50);
+            changes = changeLog.getChangesAfter(0, 100).stream()
+                    .filter(change -> change.getEmployeeId() == employeeId)
+                    .collect(Collectors.toList());
+        } while (changes.size() < count && System.nanoTime() < deadline);
+        return changes;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.EmployeeChangeRepository;
+import com.example.demo.service.Impl.EmployeeChangeLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeChangeRetentionTests {
+
+    private EmployeeChangeRepository changeRepository;
+
+    private EmployeeChangeLog changeLog;
+
+    @BeforeEach
+    public void setup(){
+        changeRepository = Mockito.mock(EmployeeChangeRepository.class);
+        given(changeRepository.findFirstSeq()).willReturn(1L);
+        given(changeRepository.findLastSeq()).willReturn(10L);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if(changeLog != null){
+            changeLog.destroy();
+        }
+    }
+
+    @Test
+    public void givenChangesPurgedByAnotherInstance_whenSequenced_thenReportThemPurged() throws InterruptedException {
+        //given
+        changeLog = start(Duration.ofDays(7));
+        assertThat(changeLog.getPurgedThrough()).isZero();
+
+        //when
+        given(changeRepository.findFirstSeq()).willReturn(6L);
+
+        //then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (changeLog.getPurgedThrough() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(changeLog.getPurgedThrough()).isEqualTo(5);
+        verify(changeRepository, never()).deleteThroughSeq(anyLong());
+    }
+
+    @Test
+    public void givenOldChangeNumberedAfterRecentOne_whenPurged_thenStopBeforeRecentOne(){
+        //given - seq 4 is recent, a later seq committed from a long transaction carries an older timestamp
+        given(changeRepository.findFirstSeqSince(any(Instant.class))).willReturn(Optional.of(4L));
+
+        //when
+        changeLog = start(Duration.ofMillis(1));
+
+        //then
+        verify(changeRepository, timeout(1000)).deleteThroughSeq(3);
+        verify(changeRepository, after(100).times(1)).deleteThroughSeq(anyLong());
+        assertThat(changeLog.getPurgedThrough()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenEveryChangeExpired_whenPurged_thenKeepLastSeq(){
+        //given
+        given(changeRepository.findFirstSeqSince(any(Instant.class))).willReturn(Optional.empty());
+
+        //when
+        changeLog = start(Duration.ofMillis(1));
+
+        //then - the next change is numbered from the one left
+        verify(changeRepository, timeout(1000)).deleteThroughSeq(9);
+        verify(changeRepository, after(100).times(1)).deleteThroughSeq(anyLong());
+    }
+
+    private EmployeeChangeLog start(Duration retention){
+        return new EmployeeChangeLog(changeRepository, Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                false, Duration.ofMillis(10), 100, retention);
+    }
+}
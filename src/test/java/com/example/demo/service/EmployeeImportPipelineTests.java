@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EmployeeImportError;
+import com.example.demo.dto.EmployeeImportStatus;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import com.example.demo.service.Impl.EmployeeImportPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeImportPipelineTests {
+
+    private EmployeeService employeeService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeImportPipeline importPipeline;
+
+    @BeforeEach
+    public void setup(){
+        employeeService = Mockito.mock(EmployeeService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // batches of two rows, three writers
+        importPipeline = new EmployeeImportPipeline(employeeService, meterRegistry, 2, 3, 1, 1, 3, 10, 100, Duration.ofHours(1));
+        given(employeeService.getExistingEmails(anyCollection())).willReturn(Set.of());
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    public void tearDown(){
+        importPipeline.destroy();
+    }
+
+    @Test
+    public void givenValidRows_whenImportCsv_thenSaveThemInBatches() throws Exception {
+        //given
+        String csv = "email,lastName,firstName,department\n" +
+                "a@hotmail.com,güler,mustafa,hr\n" +
+                "b@hotmail.com,güler,mustafa,hr\n" +
+                "\n" +
+                "c@hotmail.com,\"güler, jr\",mustafa,hr\n";
+
+        //when
+        EmployeeImportStatus status = importPipeline.importCsv(csv(csv));
+
+        //then
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getRowsRead()).isEqualTo(3);
+        assertThat(status.getImported()).isEqualTo(3);
+        assertThat(status.getRejected()).isZero();
+        verify(employeeService, times(2)).saveEmployees(anyList());
+        verify(employeeService).saveEmployees(Mockito.argThat(employees -> employees.size() == 1
+                && employees.get(0).getLastName().equals("güler, jr") && employees.get(0).getFirstName().equals("mustafa")));
+        assertThat(importPipeline.getStatus(status.getId()).get().getImported()).isEqualTo(3);
+        assertThat(meterRegistry.get(EmployeeImportPipeline.METRIC_NAME + ".rows").tag("outcome", "imported").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void givenInvalidAndDuplicateRows_whenImportCsv_thenRejectThemByRow() throws Exception {
+        //given
+        given(employeeService.getExistingEmails(anyCollection())).willAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.stream().filter(email -> email.startsWith("stored")).collect(Collectors.toSet());
+        });
+        String csv = "firstName,lastName,email\n" +
+                "mustafa,güler,a@hotmail.com\n" +
+                "mustafa,,b@hotmail.com\n" +
+                "mustafa,güler,not-an-email\n" +
+                "mustafa,güler,stored@hotmail.com\n" +
+                "mustafa,güler,c@hotmail.com\n" +
+                "mustafa,güler,c@hotmail.com\n";
+
+        //when
+        EmployeeImportStatus status = importPipeline.importCsv(csv(csv));
+
+        //then
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getRowsRead()).isEqualTo(6);
+        assertThat(status.getImported()).isEqualTo(2);
+        assertThat(status.getRejected()).isEqualTo(4);
+        assertThat(status.getErrors()).extracting(EmployeeImportError::getRow).containsExactly(2L, 3L, 4L, 6L);
+        assertThat(status.getErrors().get(2).getMessage()).isEqualTo("Employee already exist:stored@hotmail.com");
+        assertThat(status.getErrors().get(3).getEmail()).isEqualTo("c@hotmail.com");
+    }
+
+    @Test
+    public void givenBatchWithEmailSavedMeanwhile_whenImportCsv_thenSaveRestOneByOne() throws Exception {
+        //given
+        given(employeeService.saveEmployees(anyList())).willThrow(new ResourceNotFoundException("Employee already exist:b@hotmail.com"));
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            if(employee.getEmail().equals("b@hotmail.com")){
+                throw new ResourceNotFoundException("Employee already exist:b@hotmail.com");
+            }
+            return employee;
+        });
+
+        //when
+        EmployeeImportStatus status = importPipeline.importCsv(csv("firstName,lastName,email\nmustafa,güler,a@hotmail.com\nmustafa,güler,b@hotmail.com\n"));
+
+        //then
+        assertThat(status.getImported()).isEqualTo(1);
+        assertThat(status.getErrors()).extracting(EmployeeImportError::getRow).containsExactly(2L);
+        verify(employeeService, times(2)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenHeaderWithoutEmail_whenImportCsv_thenRefuseBeforeStarting(){
+        //when
+        assertThatThrownBy(() -> importPipeline.importCsv(csv("firstName,lastName\nmustafa,güler\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        //then
+        assertThat(importPipeline.getStatuses()).isEmpty();
+        verify(employeeService, never()).saveEmployees(anyList());
+    }
+
+    @Test
+    public void givenMalformedRow_whenImportCsv_thenFailKeepingEarlierRows() throws Exception {
+        //given
+        String csv = "firstName,lastName,email\n" +
+                "mustafa,güler,a@hotmail.com\n" +
+                "mustafa,güler,b@hotmail.com\n" +
+                "mustafa,\"güler,c@hotmail.com\n";
+
+        //when
+        EmployeeImportStatus status = importPipeline.importCsv(csv(csv));
+
+        //then
+        assertThat(status.getState()).isEqualTo("FAILED");
+        assertThat(status.getFailure()).startsWith("Upload stopped after row 2");
+        assertThat(status.getImported()).isEqualTo(2);
+        List<EmployeeImportStatus> statuses = importPipeline.getStatuses();
+        assertThat(statuses).extracting(EmployeeImportStatus::getId).containsExactly(status.getId());
+    }
+
+    @Test
+    public void givenTwoImportsAndSmallPool_whenImportCsv_thenShareConnectionLimitBelowPoolSize() throws Exception {
+        //given - eight writers across two jobs, but a pool of three leaves room for two import connections
+        EmployeeImportPipeline pipeline = new EmployeeImportPipeline(employeeService, meterRegistry, 1, 4, 1, 2, 10, 3, 100, Duration.ofHours(1));
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return invocation.getArgument(0);
+            } finally {
+                inUse.decrementAndGet();
+            }
+        });
+        StringBuilder first = new StringBuilder("firstName,lastName,email\n");
+        StringBuilder second = new StringBuilder("firstName,lastName,email\n");
+        for (int i = 0; i < 12; i++) {
+            first.append("mustafa,güler,a").append(i).append("@hotmail.com\n");
+            second.append("mustafa,güler,b").append(i).append("@hotmail.com\n");
+        }
+        ExecutorService uploads = Executors.newFixedThreadPool(2);
+
+        try {
+            //when
+            Future<EmployeeImportStatus> one = uploads.submit(() -> pipeline.importCsv(csv(first.toString())));
+            Future<EmployeeImportStatus> two = uploads.submit(() -> pipeline.importCsv(csv(second.toString())));
+
+            //then
+            assertThat(one.get().getImported()).isEqualTo(12);
+            assertThat(two.get().getImported()).isEqualTo(12);
+            assertThat(peak.get()).isBetween(1, 2);
+        } finally {
+            uploads.shutdownNow();
+            pipeline.destroy();
+        }
+    }
+
+    private static InputStream csv(String content){
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
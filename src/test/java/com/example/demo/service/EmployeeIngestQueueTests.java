@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import com.example.demo.service.Impl.EmployeeIngestQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeIngestQueueTests {
+
+    private EmployeeService employeeService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeIngestQueue ingestQueue;
+
+    @BeforeEach
+    public void setup(){
+        employeeService = Mockito.mock(EmployeeService.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if(ingestQueue != null){
+            ingestQueue.destroy();
+        }
+    }
+
+    @Test
+    public void givenBurstOfCreates_whenSubmit_thenSaveInOneBatch() throws Exception {
+        //given
+        ingestQueue = new EmployeeIngestQueue(employeeService, meterRegistry, 100, 3, Duration.ofSeconds(5));
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        //when
+        CompletableFuture<Employee> first = ingestQueue.submit(employee("a"));
+        CompletableFuture<Employee> second = ingestQueue.submit(employee("b"));
+        CompletableFuture<Employee> third = ingestQueue.submit(employee("c"));
+
+        //then
+        assertThat(first.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("a@hotmail.com");
+        assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+        assertThat(third.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("c@hotmail.com");
+        verify(employeeService, times(1)).saveEmployees(anyList());
+        verify(employeeService, never()).saveEmployee(Mockito.any());
+        assertThat(meterRegistry.summary(EmployeeIngestQueue.METRIC_NAME + ".batch.size").totalAmount()).isEqualTo(3.0);
+        assertThat(meterRegistry.timer(EmployeeIngestQueue.METRIC_NAME + ".flush").count()).isEqualTo(1L);
+    }
+
+    @Test
+    public void givenDuplicateInBatch_whenFlush_thenFailOnlyThatCaller() throws Exception {
+        //given
+        ingestQueue = new EmployeeIngestQueue(employeeService, meterRegistry, 100, 2, Duration.ofSeconds(5));
+        Employee fresh = employee("a");
+        Employee duplicate = employee("b");
+        given(employeeService.saveEmployees(anyList())).willThrow(new ResourceNotFoundException("Employee already exist:b@hotmail.com"));
+        given(employeeService.saveEmployee(fresh)).willReturn(fresh.toBuilder().id(1L).build());
+        given(employeeService.saveEmployee(duplicate)).willThrow(new ResourceNotFoundException("Employee already exist:b@hotmail.com"));
+
+        //when
+        CompletableFuture<Employee> freshResult = ingestQueue.submit(fresh);
+        CompletableFuture<Employee> duplicateResult = ingestQueue.submit(duplicate);
+
+        //then
+        assertThat(freshResult.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThatThrownBy(() -> duplicateResult.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        // the batch attempt worked on copies, so the retry saves the caller's untouched instance
+        assertThat(fresh.getId()).isZero();
+    }
+
+    @Test
+    public void givenFullQueue_whenSubmit_thenRejectImmediately() throws Exception {
+        //given - the flusher is stuck on the first create and the single queue slot is taken
+        ingestQueue = new EmployeeIngestQueue(employeeService, meterRegistry, 1, 1, Duration.ZERO);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return withIds(invocation.getArgument(0));
+        });
+        CompletableFuture<Employee> inFlight = ingestQueue.submit(employee("a"));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Employee> queued = ingestQueue.submit(employee("b"));
+
+        //when - then
+        assertThatThrownBy(() -> ingestQueue.submit(employee("c"))).isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.counter(EmployeeIngestQueue.METRIC_NAME + ".rejected").count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    private static Employee employee(String name){
+        return Employee.builder().firstName(name).lastName("güler").email(name + "@hotmail.com").build();
+    }
+
+    private static List<Employee> withIds(List<Employee> employees){
+        List<Employee> saved = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            saved.add(employees.get(i).toBuilder().id(i + 1L).build());
+        }
+        return saved;
+    }
+}
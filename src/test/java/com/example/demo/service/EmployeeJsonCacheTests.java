@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.EmployeeController;
+import com.example.demo.model.Employee;
+import com.example.demo.service.Impl.EmployeeJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeJsonCacheTests {
+
+    private EmployeeJsonCache employeeJsonCache;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        employeeJsonCache = new EmployeeJsonCache(DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("mustafa")
+                .lastName("güler")
+                .email("mustafa@hotmail.com")
+                .version(3L)
+                .build();
+    }
+
+    @Test
+    public void givenCachedEntry_whenGet_thenEncodeOnceUntilInvalidated(){
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        EmployeeJsonCache.Entry first = employeeJsonCache.get(1L, id -> new EmployeeJsonCache.Entry("\"" + loads.incrementAndGet() + "\"", new byte[]{1}));
+        EmployeeJsonCache.Entry second = employeeJsonCache.get(1L, id -> new EmployeeJsonCache.Entry("\"" + loads.incrementAndGet() + "\"", new byte[]{1}));
+        employeeJsonCache.invalidate(1L);
+        EmployeeJsonCache.Entry third = employeeJsonCache.get(1L, id -> new EmployeeJsonCache.Entry("\"" + loads.incrementAndGet() + "\"", new byte[]{1}));
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(third.getEtag()).isEqualTo("\"2\"");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void givenMissingEmployee_whenGet_thenReturnNullWithoutCaching(){
+        //when
+        EmployeeJsonCache.Entry entry = employeeJsonCache.get(9L, id -> null);
+
+        //then
+        assertThat(entry).isNull();
+        assertThat(employeeJsonCache.size()).isZero();
+    }
+
+    @Test
+    public void givenJsonCache_whenGetEmployeeJsonById_thenServeEncodedBytesWithoutReload() throws Exception {
+        //given
+        ObjectMapper objectMapper = new ObjectMapper();
+        EmployeeService employeeService = Mockito.mock(EmployeeService.class);
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        EmployeeController employeeController = new EmployeeController(employeeService, objectMapper, employeeJsonCache);
+
+        //when
+        employeeController.getEmployeeJsonById(1L, null);
+        ResponseEntity<?> response = employeeController.getEmployeeJsonById(1L, null);
+        ResponseEntity<?> notModified = employeeController.getEmployeeJsonById(1L, "\"3\"");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.ETAG)).isEqualTo("\"3\"");
+        assertThat(objectMapper.readTree((byte[]) response.getBody()).get("email").asText()).isEqualTo("mustafa@hotmail.com");
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(employeeService, times(1)).getEmployeeById(1L);
+    }
+}
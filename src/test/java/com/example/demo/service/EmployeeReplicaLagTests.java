@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.Employee;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The replica is a separate database holding a copy taken before the update, so it is really behind.
+// It has no table until the test copies one, hence no suggest index to warm up from it at startup
+@SpringBootTest(classes = DemoApplication.class, properties = {
+        "spring.datasource.url=" + EmployeeReplicaLagTests.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.routing.enabled=true",
+        "employees.routing.replica.url=" + EmployeeReplicaLagTests.REPLICA_URL,
+        "employees.suggest.enabled=false",
+        "employees.reactive.enabled=false"
+})
+@AutoConfigureMockMvc
+public class EmployeeReplicaLagTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:replica-lag-primary;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-lag-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void givenReplicaBehind_whenReadAfterWrite_thenCachedReadsOfWrittenIdComeFromPrimary(){
+        //given
+        Employee saved = employeeService.saveEmployee(Employee.builder().firstName("original").lastName("lag").email("lag@hotmail.com").build());
+        long id = saved.getId();
+        replicate();
+        String replicaVersion = employeeService.getEmployeesVersion();
+        saved.setFirstName("updated");
+        long version = employeeService.updateEmployee(saved).getVersion();
+
+        //when - the export reads the replica and meets the old row
+        List<String> exported = new ArrayList<>();
+        employeeService.exportEmployees(employee -> exported.add(employee.getFirstName()));
+
+        //then
+        assertThat(exported).containsExactly("original");
+        assertThat(employeeService.getEmployeeById(id).get().getFirstName()).isEqualTo("updated");
+        // the second time from the entity cache, which must not have been filled from the replica
+        assertThat(employeeService.getEmployeeById(id).get().getFirstName()).isEqualTo("updated");
+        assertThat(employeeService.getEmployeesByIds(List.of(id)).getEmployees())
+                .extracting(Employee::getFirstName).containsExactly("updated");
+        assertThat(employeeService.getEmployeeVersion(id)).contains(version);
+        // the page and its tag both come from the replica, so they agree with each other
+        assertThat(employeeService.getEmployeePage(0, 10).getEmployees())
+                .extracting(Employee::getFirstName).containsExactly("original");
+        assertThat(employeeService.getEmployeesVersion()).isEqualTo(replicaVersion);
+    }
+
+    @Test
+    public void givenIdNotWrittenHere_whenGetEmployeeById_thenReadFromReplica() throws Exception {
+        //given - written straight to the primary, so neither this instance nor the replica has seen the change
+        JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+        primary.update("insert into employees (id, first_name, last_name, email, version) values (900001, 'replicated', 'lag', 'replica@hotmail.com', 0)");
+        replicate();
+        primary.update("update employees set first_name = 'primary only', version = 1 where id = 900001");
+
+        //when
+        mockMvc.perform(get("/api/employees/{id}", 900001L))
+
+        //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", CoreMatchers.is("replicated")));
+    }
+
+    // replaces the replica's copies of the employees table and its version row with the primary's as they are now
+    private static void replicate(){
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        for (String table : List.of("employees", "employees_version")) {
+            replica.execute("drop table if exists " + table);
+            replica.execute("create linked table if not exists primary_" + table + "('org.h2.Driver', '" + PRIMARY_URL + "', 'sa', '', '" + table.toUpperCase() + "') readonly");
+            replica.execute("create table " + table + " as select * from primary_" + table);
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeCursor;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.EmployeeSummaryPage;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.model.Employee;
 import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.Impl.EmailBloomFilter;
+import com.example.demo.service.Impl.EmployeeCache;
+import com.example.demo.service.Impl.EmployeeJsonCache;
+import com.example.demo.service.Impl.EmployeeServiceImpl;
+import com.example.demo.service.Impl.EmployeeSuggestIndex;
+import com.example.demo.service.Impl.EmployeesVersionCounter;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,16 +23,31 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,8 +55,12 @@ public class EmployeeServiceTests {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EmployeesVersionCounter versionCounter;
     @InjectMocks
-    private EmployeeService employeeService;
+    private EmployeeServiceImpl employeeService;
 
     private Employee employee;
 
@@ -49,9 +80,7 @@ public class EmployeeServiceTests {
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
 
 
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         System.out.println(employeeRepository);
         System.out.println(employeeService);
@@ -60,13 +89,13 @@ public class EmployeeServiceTests {
         Employee savedEmployee = employeeService.saveEmployee(employee);
         //then
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository,never()).findByEmail(employee.getEmail());
     }
 
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException(){
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate",null,Employee.EMAIL_UNIQUE_CONSTRAINT)));
 
         System.out.println(employeeRepository);
         System.out.println(employeeService);
@@ -81,6 +110,47 @@ public class EmployeeServiceTests {
         verify(employeeRepository,never()).save(any(Employee.class));
     }
 
+    @Test
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrow(){
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null",null,"other_constraint")));
+
+        //when
+        assertThrows(DataIntegrityViolationException.class,()->{
+            employeeService.saveEmployee(employee);
+        });
+    }
+
+    @Test
+    public void givenEmailFilterHit_whenSaveEmployee_thenThrowsWithoutInsert(){
+        //given
+        EmailBloomFilter emailFilter = new EmailBloomFilter(100,0.01);
+        emailFilter.put(employee.getEmail());
+        ReflectionTestUtils.setField(employeeService,"emailFilter",emailFilter);
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        //when
+        assertThrows(ResourceNotFoundException.class,()->{
+            employeeService.saveEmployee(employee);
+        });
+
+        //then
+        verify(employeeRepository,never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    public void givenEmailFilterMiss_whenSaveEmployee_thenSkipLookup(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"emailFilter",new EmailBloomFilter(100,0.01));
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when
+        employeeService.saveEmployee(employee);
+
+        //then
+        verify(employeeRepository,never()).findByEmail(anyString());
+    }
+
     @Test
     public void givenEmployeeList_whenGetAllEmployees_thenReturnEmployeeList(){
         //given - precondition or setup
@@ -136,7 +206,7 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnEmployeeObject(){
         //given
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         employee.setEmail("ms4@hotmail.com");
         employee.setFirstName("Mstf");
         //when
@@ -148,18 +218,514 @@ public class EmployeeServiceTests {
 
     }
 
+    @Test
+    public void givenEmailOfAnotherEmployee_whenUpdateEmployee_thenThrowsException(){
+        //given
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate",null,Employee.EMAIL_UNIQUE_CONSTRAINT)));
+
+        //when
+        assertThrows(ResourceNotFoundException.class,()->{
+            employeeService.updateEmployee(employee);
+        });
+    }
+
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenNothing(){
         //given
 
         long employeeId = 1L;
 
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteByIds(List.of(employeeId))).willReturn(1);
 
         //when
         employeeService.deleteEmployee(employeeId);
         //then
-        verify(employeeRepository,times(1)).deleteById(employeeId);
+        verify(employeeRepository,times(1)).deleteByIds(List.of(employeeId));
+    }
+
+    @Test
+    public void givenMoreRowsThanLimit_whenGetEmployeePage_thenReturnPageWithNextCursor(){
+        //given
+        Employee employee1 = Employee.builder().id(2L).firstName("musa").lastName("güler").email("musa@hotmail.com").build();
+        Employee employee2 = Employee.builder().id(3L).firstName("ali").lastName("güler").email("ali@hotmail.com").build();
+
+        given(employeeRepository.findPageAfterId(0L, PageRequest.of(0,3))).willReturn(List.of(employee,employee1,employee2));
+
+        //when
+        EmployeePage page = employeeService.getEmployeePage(0L,2);
+
+        //then
+        assertThat(page.getEmployees()).containsExactly(employee,employee1);
+        assertThat(EmployeeCursor.decode(page.getNextCursor())).isEqualTo(2L);
+    }
+
+    @Test
+    public void givenLastPage_whenGetEmployeePage_thenReturnPageWithoutCursor(){
+        //given
+        given(employeeRepository.findPageAfterId(0L, PageRequest.of(0,3))).willReturn(List.of(employee));
+
+        //when
+        EmployeePage page = employeeService.getEmployeePage(0L,2);
+
+        //then
+        assertThat(page.getEmployees()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void givenEmployeeStream_whenExportEmployees_thenClearPersistenceContextEveryInterval(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"exportClearInterval",2);
+        given(employeeRepository.streamAllOrderById()).willReturn(Stream.of(employee,employee,employee,employee,employee));
+        List<Employee> exported = new ArrayList<>();
+
+        //when
+        long count = employeeService.exportEmployees(exported::add);
+
+        //then
+        assertThat(count).isEqualTo(5);
+        assertThat(exported).hasSize(5);
+        verify(entityManager,times(2)).clear();
+    }
+
+    @Test
+    public void givenEmployeeList_whenSaveEmployees_thenSaveInBatches(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"batchSize",2);
+        Employee employee1 = Employee.builder().firstName("musa").lastName("güler").email("musa@hotmail.com").build();
+        Employee employee2 = Employee.builder().firstName("ali").lastName("güler").email("ali@hotmail.com").build();
+        given(employeeRepository.findByEmailIn(anyCollection())).willReturn(Collections.emptyList());
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        List<Employee> savedEmployees = employeeService.saveEmployees(List.of(employee,employee1,employee2));
+
+        //then
+        assertThat(savedEmployees).containsExactly(employee,employee1,employee2);
+        verify(employeeRepository,times(2)).saveAll(anyList());
+        verify(entityManager,times(2)).clear();
+    }
+
+    @Test
+    public void givenExistingEmail_whenSaveEmployees_thenThrowsException(){
+        //given
+        given(employeeRepository.findByEmailIn(anyCollection())).willReturn(List.of(employee));
+
+        //when
+        assertThrows(ResourceNotFoundException.class,()->{
+            employeeService.saveEmployees(List.of(employee));
+        });
+
+        //then
+        verify(employeeRepository,never()).saveAll(anyList());
+    }
+
+    @Test
+    public void givenEmailCreatedAfterLookup_whenSaveEmployees_thenThrowsException(){
+        //given - the lookup finds nothing, a concurrent create commits before the batch is flushed
+        given(employeeRepository.findByEmailIn(anyCollection())).willReturn(Collections.emptyList());
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate",null,Employee.EMAIL_UNIQUE_CONSTRAINT))).when(entityManager).flush();
+
+        //when
+        assertThrows(ResourceNotFoundException.class,()->{
+            employeeService.saveEmployees(List.of(employee));
+        });
+    }
+
+    @Test
+    public void givenIdCachedAsMissing_whenSaveEmployees_thenEvictOnlyAfterCommit(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"employeeCache",new EmployeeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        given(employeeRepository.findByEmailIn(anyCollection())).willReturn(Collections.emptyList());
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        employeeService.getEmployeeById(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            employeeService.saveEmployees(List.of(employee));
+            // a probe before commit still gets the cached miss
+            assertThat(employeeService.getEmployeeById(1L)).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //then
+        assertThat(employeeService.getEmployeeById(1L)).map(Employee::getEmail).contains(employee.getEmail());
+        verify(employeeRepository,times(2)).findById(1L);
+    }
+
+    @Test
+    public void givenDuplicateEmailInRequest_whenSaveEmployees_thenThrowsException(){
+        //given
+        Employee duplicate = Employee.builder().firstName("musa").lastName("güler").email(employee.getEmail()).build();
+
+        //when
+        assertThrows(ResourceNotFoundException.class,()->{
+            employeeService.saveEmployees(List.of(employee,duplicate));
+        });
+
+        //then
+        verify(employeeRepository,never()).saveAll(anyList());
+    }
+
+    @Test
+    public void givenEmployeeCache_whenUpdateEmployee_thenNextGetReloadsFromRepository(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"employeeCache",new EmployeeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L);
+
+        //when
+        employeeService.updateEmployee(employee);
+        employeeService.getEmployeeById(1L);
+
+        //then
+        verify(employeeRepository,times(2)).findById(1L);
+    }
+
+    @Test
+    public void givenMoreMatchesThanLimit_whenSearchEmployees_thenReturnPageWithCursor(){
+        //given - precondition or setup
+        EmployeeSummary summary1 = new EmployeeSummary(3L,"mustafa","güler","mustafa@hotmail.com");
+        EmployeeSummary summary2 = new EmployeeSummary(8L,"mustafa","güler","mustafa2@hotmail.com");
+        given(employeeRepository.findSummariesByName("mustafa","güler",0L,PageRequest.of(0,2)))
+                .willReturn(new ArrayList<>(List.of(summary1,summary2)));
+
+        //when - action or the behaviour that we are going test
+        EmployeeSummaryPage page = employeeService.searchEmployees("mustafa","güler",0L,1);
+
+        //then - verify the output
+        assertThat(page.getEmployees()).containsExactly(summary1);
+        assertThat(EmployeeCursor.decode(page.getNextCursor())).isEqualTo(3L);
+        verify(employeeRepository, never()).findByJPQLNamedParams(anyString(),anyString());
+    }
+
+    @Test
+    public void givenLastNameOnly_whenSearchEmployees_thenQueryByLastName(){
+        //given - precondition or setup
+        EmployeeSummary summary = new EmployeeSummary(3L,"mustafa","güler","mustafa@hotmail.com");
+        given(employeeRepository.findSummariesByLastName("güler",2L,PageRequest.of(0,11))).willReturn(List.of(summary));
+
+        //when - action or the behaviour that we are going test
+        EmployeeSummaryPage page = employeeService.searchEmployees(null,"güler",2L,10);
+
+        //then - verify the output
+        assertThat(page.getEmployees()).containsExactly(summary);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void givenEmail_whenGetEmployeeSummaryByEmail_thenReturnProjection(){
+        //given - precondition or setup
+        EmployeeSummary summary = new EmployeeSummary(1L,"mustafa","güler","mustafa@hotmail.com");
+        given(employeeRepository.findSummaryByEmail("mustafa@hotmail.com")).willReturn(Optional.of(summary));
+
+        //when - action or the behaviour that we are going test
+        Optional<EmployeeSummary> result = employeeService.getEmployeeSummaryByEmail("mustafa@hotmail.com");
+
+        //then - verify the output
+        assertThat(result).containsSame(summary);
+    }
+
+    @Test
+    public void givenSuggestIndex_whenSaveUpdateAndDelete_thenKeepIndexCurrent(){
+        //given - precondition or setup
+        EmployeeSuggestIndex suggestIndex = new EmployeeSuggestIndex();
+        ReflectionTestUtils.setField(employeeService,"suggestIndex",suggestIndex);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        Employee renamed = employee.toBuilder().firstName("mehmet").build();
+        given(employeeRepository.saveAndFlush(renamed)).willReturn(renamed);
+        given(employeeRepository.deleteByIds(List.of(1L))).willReturn(1);
+
+        //when - then
+        employeeService.saveEmployee(employee);
+        assertThat(employeeService.suggestEmployees("musta",10)).extracting(EmployeeSummary::getId).containsExactly(1L);
+
+        employeeService.updateEmployee(renamed);
+        assertThat(employeeService.suggestEmployees("mustafa g",10)).isEmpty();
+        assertThat(employeeService.suggestEmployees("meh",10)).extracting(EmployeeSummary::getId).containsExactly(1L);
+
+        employeeService.deleteEmployee(1L);
+        assertThat(employeeService.suggestEmployees("meh",10)).isEmpty();
+        verify(employeeRepository, never()).findSummariesByLastNamePrefix(anyString(),any());
+    }
+
+    @Test
+    public void givenNoSuggestIndex_whenSuggestEmployees_thenFallBackToLastNamePrefixQuery(){
+        //given - precondition or setup
+        EmployeeSummary summary = new EmployeeSummary(1L,"mustafa","güler","mustafa@hotmail.com");
+        given(employeeRepository.findSummariesByLastNamePrefix("gül",PageRequest.of(0,5))).willReturn(List.of(summary));
+
+        //when - action or the behaviour that we are going test
+        List<EmployeeSummary> suggestions = employeeService.suggestEmployees(" gül ",5);
+
+        //then - verify the output
+        assertThat(suggestions).containsExactly(summary);
+    }
+
+    @Test
+    public void givenWildcardsInQuery_whenSuggestEmployees_thenEscapeThemForLikeQuery(){
+        //given - precondition or setup
+        given(employeeRepository.findSummariesByLastNamePrefix("o\\_n\\%\\\\",PageRequest.of(0,5))).willReturn(List.of());
+
+        //when - action or the behaviour that we are going test
+        List<EmployeeSummary> suggestions = employeeService.suggestEmployees("o_n%\\",5);
+
+        //then - verify the output
+        assertThat(suggestions).isEmpty();
+        verify(employeeRepository).findSummariesByLastNamePrefix("o\\_n\\%\\\\",PageRequest.of(0,5));
+    }
+
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenReturnInRequestOrderAndReportMissing(){
+        //given - precondition or setup
+        Employee employee2 = employee.toBuilder().id(2L).email("musa@hotmail.com").build();
+        given(employeeRepository.findAllById(List.of(2L,9L,1L))).willReturn(List.of(employee,employee2));
+
+        //when - action or the behaviour that we are going test
+        EmployeeBatch batch = employeeService.getEmployeesByIds(List.of(2L,9L,1L,2L));
+
+        //then - verify the output
+        assertThat(batch.getEmployees()).extracting(Employee::getId).containsExactly(2L,1L);
+        assertThat(batch.getMissingIds()).containsExactly(9L);
+    }
+
+    @Test
+    public void givenManyIds_whenGetEmployeesByIds_thenQueryInBoundedChunks(){
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        given(employeeRepository.findAllById(anyList())).willReturn(Collections.emptyList());
+
+        //when - action or the behaviour that we are going test
+        EmployeeBatch batch = employeeService.getEmployeesByIds(ids);
+
+        //then - verify the output
+        verify(employeeRepository,times(3)).findAllById(anyList());
+        assertThat(batch.getMissingIds()).hasSize(2500);
+    }
+
+    @Test
+    public void givenCachedEmployee_whenGetEmployeesByIds_thenLoadOnlyMisses(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(employeeService,"employeeCache",new EmployeeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+        given(employeeRepository.findAllById(anyList())).willReturn(Collections.emptyList());
+
+        //when - action or the behaviour that we are going test
+        EmployeeBatch batch = employeeService.getEmployeesByIds(List.of(1L,5L));
+
+        //then - verify the output
+        verify(employeeRepository).findAllById(List.of(5L));
+        assertThat(batch.getEmployees()).extracting(Employee::getId).containsExactly(1L);
+        assertThat(batch.getMissingIds()).containsExactly(5L);
+    }
+
+    @Test
+    public void givenCachedEmployee_whenGetCachedEmployeeVersion_thenAnswerWithoutQuery(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"employeeCache",new EmployeeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+        employee.setVersion(3L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        //when
+        Optional<Long> version = employeeService.getCachedEmployeeVersion(1L);
+
+        //then
+        assertThat(version).contains(3L);
+        verify(employeeRepository,times(1)).findById(1L);
+        verify(employeeRepository,never()).findVersionById(anyLong());
+    }
+
+    @Test
+    public void givenEmployeeInNeitherCache_whenGetCachedEmployeeVersion_thenQueryOnlyTheVersion(){
+        //given
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        given(entityManager.getEntityManagerFactory()).willReturn(entityManagerFactory);
+        given(entityManagerFactory.getCache()).willReturn(mock(Cache.class));
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(3L));
+
+        //when
+        Optional<Long> version = employeeService.getCachedEmployeeVersion(1L);
+
+        //then
+        assertThat(version).contains(3L);
+        verify(employeeRepository,never()).findById(anyLong());
+    }
+
+    @Test
+    public void givenWrites_whenGetEmployeesVersion_thenCountEachWriteInTheTable(){
+        //given - precondition or setup
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        given(employeeRepository.deleteByIds(List.of(1L))).willReturn(1);
+        given(employeeRepository.deleteByIds(List.of(2L))).willReturn(0);
+        given(versionCounter.get()).willReturn("epoch-2");
+
+        //when - action or the behaviour that we are going test
+        employeeService.saveEmployee(employee);
+        employeeService.deleteEmployee(1L);
+        employeeService.deleteEmployee(2L);
+
+        //then - verify the output
+        verify(versionCounter,times(2)).increment();
+        assertThat(employeeService.getEmployeesVersion()).isEqualTo("epoch-2");
+    }
+
+    @Test
+    public void givenChanges_whenPatchEmployee_thenApplyOnlyPatchedFields(){
+        //given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when
+        Optional<Employee> patched = employeeService.patchEmployee(1L, Map.of("firstName","musa"), 0L);
+
+        //then
+        assertThat(patched).containsSame(employee);
+        assertThat(employee.getFirstName()).isEqualTo("musa");
+        assertThat(employee.getEmail()).isEqualTo("mustafa@hotmail.com");
+    }
+
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenThrowsWithoutWrite(){
+        //given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.patchEmployee(1L, Map.of("firstName","musa"), 3L);
+        });
+
+        //then
+        verify(employeeRepository,never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    public void givenSuggestIndex_whenPatchEmployeeField_thenSingleUpdateAndReindex(){
+        //given
+        EmployeeSuggestIndex suggestIndex = new EmployeeSuggestIndex();
+        suggestIndex.put(new EmployeeSummary(1L,"mustafa","güler","mustafa@hotmail.com"));
+        ReflectionTestUtils.setField(employeeService,"suggestIndex",suggestIndex);
+        given(employeeRepository.updateLastName(1L,"yılmaz",-1L)).willReturn(1);
+
+        //when
+        boolean updated = employeeService.patchEmployeeField(1L, "lastName", "yılmaz", null);
+
+        //then
+        assertThat(updated).isTrue();
+        assertThat(employeeService.suggestEmployees("yılm",10)).extracting(EmployeeSummary::getFirstName).containsExactly("mustafa");
+        assertThat(employeeService.suggestEmployees("gül",10)).isEmpty();
+        verify(employeeRepository,never()).findById(anyLong());
+    }
+
+    @Test
+    public void givenNoMatchingRow_whenPatchEmployeeField_thenTellMissingFromStale(){
+        //given
+        given(employeeRepository.updateEmail(1L,"musa@gmail.com",3L)).willReturn(0);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(4L));
+        given(employeeRepository.updateEmail(2L,"musa@gmail.com",3L)).willReturn(0);
+        given(employeeRepository.findVersionById(2L)).willReturn(Optional.empty());
+
+        //when - then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.patchEmployeeField(1L, "email", "musa@gmail.com", 3L);
+        });
+        assertThat(employeeService.patchEmployeeField(2L, "email", "musa@gmail.com", 3L)).isFalse();
+    }
+
+    @Test
+    public void givenSecondLevelCache_whenPatchEmployeeField_thenUpdateManagedEntityInsteadOfBulkStatement(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"l2CacheEnabled",true);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        boolean updated = employeeService.patchEmployeeField(1L, "firstName", "musa", null);
+
+        //then
+        assertThat(updated).isTrue();
+        assertThat(employee.getFirstName()).isEqualTo("musa");
+        verify(employeeRepository).saveAndFlush(employee);
+        verify(employeeRepository,never()).updateFirstName(anyLong(),anyString(),anyLong());
+        verify(entityManager,never()).lock(any(),any());
+    }
+
+    @Test
+    public void givenSecondLevelCacheAndSameValue_whenPatchEmployeeField_thenStillBumpVersion(){
+        //given
+        ReflectionTestUtils.setField(employeeService,"l2CacheEnabled",true);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        boolean updated = employeeService.patchEmployeeField(1L, "firstName", employee.getFirstName(), null);
+
+        //then
+        assertThat(updated).isTrue();
+        verify(entityManager).lock(employee, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Test
+    public void givenMissingId_whenDeleteEmployee_thenReturnFalse(){
+        //given
+        given(employeeRepository.deleteByIds(List.of(9L))).willReturn(0);
+
+        //when
+        boolean deleted = employeeService.deleteEmployee(9L);
+
+        //then
+        assertThat(deleted).isFalse();
+        verify(employeeRepository,never()).deleteById(anyLong());
+    }
+
+    @Test
+    public void givenManyIds_whenDeleteEmployees_thenOneStatementPerChunkAndEvict(){
+        //given
+        EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(employeeService,"employeeCache",employeeCache);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        given(employeeRepository.deleteByIds(anyCollection())).willReturn(1000, 1000, 400);
+
+        //when
+        int deleted = employeeService.deleteEmployees(ids);
+        employeeService.getEmployeeById(1L);
+
+        //then
+        assertThat(deleted).isEqualTo(2400);
+        verify(employeeRepository,times(3)).deleteByIds(anyCollection());
+        verify(employeeRepository,times(2)).findById(1L);
+    }
+
+    @Test
+    public void givenJsonCache_whenUpdateEmployee_thenDropEncodedJson(){
+        //given
+        EmployeeJsonCache employeeJsonCache = new EmployeeJsonCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(employeeService,"employeeJsonCache",employeeJsonCache);
+        employeeJsonCache.get(1L, id -> new EmployeeJsonCache.Entry("\"0\"", new byte[]{1}));
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when
+        employeeService.updateEmployee(employee);
+
+        //then
+        assertThat(employeeJsonCache.size()).isZero();
     }
 }
 
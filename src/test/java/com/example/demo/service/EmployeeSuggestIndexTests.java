@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.service.Impl.EmployeeSuggestIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSuggestIndexTests {
+
+    private EmployeeSuggestIndex suggestIndex;
+
+    @BeforeEach
+    public void setup(){
+        suggestIndex = new EmployeeSuggestIndex();
+        suggestIndex.put(new EmployeeSummary(1L,"Mustafa","Güler","mustafa@hotmail.com"));
+        suggestIndex.put(new EmployeeSummary(2L,"Musa","Yılmaz","musa@hotmail.com"));
+        suggestIndex.put(new EmployeeSummary(3L,"Ali","Gül","ali@gmail.com"));
+    }
+
+    @Test
+    public void givenIndexedEmployees_whenSuggest_thenMatchPrefixesOfAnyField(){
+        //when
+        List<EmployeeSummary> byFirstName = suggestIndex.suggest("mus",10);
+        List<EmployeeSummary> byLastName = suggestIndex.suggest("GUL",10);
+        List<EmployeeSummary> byFullName = suggestIndex.suggest("mustafa g",10);
+        List<EmployeeSummary> byEmail = suggestIndex.suggest("ali@",10);
+
+        //then
+        assertThat(byFirstName).extracting(EmployeeSummary::getId).containsExactly(2L,1L);
+        assertThat(byLastName).extracting(EmployeeSummary::getId).containsExactly(3L,1L);
+        assertThat(byFullName).extracting(EmployeeSummary::getId).containsExactly(1L);
+        assertThat(byEmail).extracting(EmployeeSummary::getId).containsExactly(3L);
+    }
+
+    @Test
+    public void givenManyMatches_whenSuggest_thenReturnDistinctEmployeesUpToLimit(){
+        //when - "mus" matches first name and email of both 1 and 2
+        List<EmployeeSummary> suggestions = suggestIndex.suggest("mu",1);
+
+        //then
+        assertThat(suggestions).hasSize(1);
+        assertThat(suggestIndex.suggest("mu",10)).extracting(EmployeeSummary::getId).containsExactlyInAnyOrder(1L,2L);
+    }
+
+    @Test
+    public void givenUpdatedEmployee_whenPut_thenReplaceOldKeys(){
+        //when
+        suggestIndex.put(new EmployeeSummary(1L,"Mehmet","Güler","mehmet@hotmail.com"));
+
+        //then
+        assertThat(suggestIndex.suggest("mustafa",10)).isEmpty();
+        assertThat(suggestIndex.suggest("meh",10)).extracting(EmployeeSummary::getEmail).containsExactly("mehmet@hotmail.com");
+        assertThat(suggestIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenDeletedEmployee_whenRemove_thenNoLongerSuggested(){
+        //when
+        suggestIndex.remove(2L);
+
+        //then
+        assertThat(suggestIndex.suggest("musa",10)).isEmpty();
+        assertThat(suggestIndex.suggest("",10)).isEmpty();
+        assertThat(suggestIndex.size()).isEqualTo(2);
+    }
+}
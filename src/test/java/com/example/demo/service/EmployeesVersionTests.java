@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// a second application context on the same database stands in for another instance
+@SpringBootTest(classes = DemoApplication.class, properties = {
+        "spring.datasource.url=" + EmployeesVersionTests.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.reactive.enabled=false"
+})
+public class EmployeesVersionTests {
+
+    static final String URL = "jdbc:h2:mem:employees-version-test;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    public void givenWriteOnAnotherInstance_whenGetEmployeesVersion_thenTagMoves(){
+        //given
+        employeeService.saveEmployee(employee("version-a@hotmail.com"));
+        String before = employeeService.getEmployeesVersion();
+
+        //when
+        try (ConfigurableApplicationContext other = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--employees.reactive.enabled=false")) {
+            other.getBean(EmployeeService.class).saveEmployee(employee("version-b@hotmail.com"));
+        }
+
+        //then
+        assertThat(employeeService.getEmployeesVersion()).isNotEqualTo(before);
+    }
+
+    @Test
+    public void givenFailedWrite_whenGetEmployeesVersion_thenTagStays(){
+        //given
+        employeeService.saveEmployee(employee("version-c@hotmail.com"));
+        String before = employeeService.getEmployeesVersion();
+
+        //when
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee("version-c@hotmail.com")));
+
+        //then
+        assertThat(employeeService.getEmployeesVersion()).isEqualTo(before);
+    }
+
+    private static Employee employee(String email){
+        return Employee.builder().firstName("mustafa").lastName("güler").email(email).build();
+    }
+}
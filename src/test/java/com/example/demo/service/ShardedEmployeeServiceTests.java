@@ -0,0 +1,232 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.datasource.ShardRoutingDataSource;
+import com.example.demo.dto.EmployeeBatch;
+import com.example.demo.dto.EmployeeCursor;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.Impl.ShardedEmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// three in-memory H2 databases as shards
+@SpringBootTest(classes = DemoApplication.class, properties = {
+        "employees.sharding.enabled=true",
+        "employees.sharding.urls=jdbc:h2:mem:shard-test-0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-test-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-test-2;DB_CLOSE_DELAY=-1",
+        "employees.sharding.username=sa",
+        "employees.sharding.password=",
+        "employees.reactive.enabled=false"
+})
+public class ShardedEmployeeServiceTests {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    public void cleanup(){
+        List<Long> ids = employeeService.getAllEmployees().stream().map(Employee::getId).collect(Collectors.toList());
+        if(!ids.isEmpty()){
+            employeeService.deleteEmployees(ids);
+        }
+    }
+
+    @Test
+    public void givenNewEmployees_whenSaved_thenEachLandsOnTheShardItsIdNames(){
+        //given
+        assertThat(employeeService).isInstanceOf(ShardedEmployeeService.class);
+
+        //when
+        List<Employee> saved = employeeService.saveEmployees(employees(12));
+        saved.add(employeeService.saveEmployee(employee("single@hotmail.com")));
+
+        //then
+        assertThat(saved.stream().map(employee -> ShardRoutingDataSource.shardOf(employee.getId(), SHARDS)).distinct()).hasSize(SHARDS);
+        for (Employee employee : saved) {
+            int shard = ShardRoutingDataSource.shardOf(employee.getId(), SHARDS);
+            for (int other = 0; other < SHARDS; other++) {
+                boolean stored = ShardRoutingDataSource.onShard(other, () -> employeeRepository.existsById(employee.getId()));
+                assertThat(stored).isEqualTo(other == shard);
+            }
+        }
+    }
+
+    @Test
+    public void givenEmployeesOnAllShards_whenPaging_thenMergeInIdOrder(){
+        //given
+        List<Long> ids = employeeService.saveEmployees(employees(10)).stream()
+                .map(Employee::getId).sorted().collect(Collectors.toList());
+
+        //when
+        List<Long> paged = new ArrayList<>();
+        long afterId = 0;
+        EmployeePage page;
+        do {
+            page = employeeService.getEmployeePage(afterId, 4);
+            page.getEmployees().forEach(employee -> paged.add(employee.getId()));
+            afterId = page.getNextCursor() == null ? afterId : EmployeeCursor.decode(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+
+        //then
+        assertThat(paged).isEqualTo(ids);
+        assertThat(employeeService.getAllEmployees()).extracting(Employee::getId).isEqualTo(ids);
+    }
+
+    @Test
+    public void givenEmailOnAnotherShard_whenSavedOrPatchedAgain_thenRejectDuplicate(){
+        //given
+        List<Employee> saved = employeeService.saveEmployees(employees(6));
+        Employee first = saved.get(0);
+        Employee other = saved.stream()
+                .filter(employee -> ShardRoutingDataSource.shardOf(employee.getId(), SHARDS) != ShardRoutingDataSource.shardOf(first.getId(), SHARDS))
+                .findFirst().get();
+
+        //when
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee(first.getEmail())));
+        assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.patchEmployee(other.getId(), Map.of(Employee.EMAIL, first.getEmail()), null));
+
+        //then
+        assertThat(employeeService.getEmployeeById(other.getId()).get().getEmail()).isEqualTo(other.getEmail());
+    }
+
+    @Test
+    public void givenChangedEmail_whenLookedUpByEmail_thenFindItAwayFromItsHomeShard(){
+        //given
+        Employee saved = employeeService.saveEmployees(employees(1)).get(0);
+        String moved = movedEmail(saved.getId());
+
+        //when
+        employeeService.patchEmployee(saved.getId(), Map.of(Employee.EMAIL, moved), null);
+        Optional<EmployeeSummary> summary = employeeService.getEmployeeSummaryByEmail(moved);
+
+        //then
+        assertThat(summary).isPresent();
+        assertThat(summary.get().getId()).isEqualTo(saved.getId());
+        assertThat(employeeService.getEmployeeSummaryByEmail(saved.getEmail())).isEmpty();
+    }
+
+    @Test
+    public void givenIdsOnSeveralShards_whenBatchLookupAndDelete_thenKeepRequestOrder(){
+        //given
+        List<Employee> saved = employeeService.saveEmployees(employees(6));
+        List<Long> requested = List.of(saved.get(3).getId(), 999_999L, saved.get(0).getId(), saved.get(5).getId());
+
+        //when
+        EmployeeBatch batch = employeeService.getEmployeesByIds(requested);
+        int deleted = employeeService.deleteEmployees(List.of(saved.get(3).getId(), saved.get(0).getId(), saved.get(5).getId()));
+
+        //then
+        assertThat(batch.getEmployees()).extracting(Employee::getId)
+                .containsExactly(saved.get(3).getId(), saved.get(0).getId(), saved.get(5).getId());
+        assertThat(batch.getMissingIds()).containsExactly(999_999L);
+        assertThat(deleted).isEqualTo(3);
+        assertThat(employeeService.getAllEmployees()).hasSize(3);
+    }
+
+    @Test
+    public void givenReactiveEndpoints_whenShardingEnabled_thenRefuseToStart(){
+        //when
+        Exception e = assertThrows(Exception.class, () -> start("startup-reactive", true));
+
+        //then
+        assertThat(e).hasStackTraceContaining("employees.reactive cannot be combined with employees.sharding");
+    }
+
+    @Test
+    public void givenRowFromBeforeSharding_whenShardingEnabled_thenRefuseToStart(){
+        //given - shard 0 is an existing database with a row id mod 3 sends elsewhere
+        JdbcTemplate shard0 = new JdbcTemplate(new DriverManagerDataSource(startupShardUrl("startup-misplaced", 0), "sa", ""));
+        shard0.execute("create table employees(id bigint primary key, first_name varchar(255) not null, "
+                + "last_name varchar(255) not null, email varchar(255) not null, version bigint not null)");
+        shard0.update("insert into employees values (4, 'mustafa', 'güler', 'old@hotmail.com', 0)");
+
+        //when
+        Exception e = assertThrows(Exception.class, () -> start("startup-misplaced", false));
+
+        //then
+        assertThat(e).hasStackTraceContaining("Shard 0 holds employee 4, which belongs on shard 1");
+    }
+
+    // properties as arguments: default properties would lose to application.properties
+    private static void start(String name, boolean reactive){
+        new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--employees.sharding.enabled=true",
+                        "--employees.sharding.urls=" + startupShardUrl(name, 0) + "," + startupShardUrl(name, 1) + "," + startupShardUrl(name, 2),
+                        "--employees.sharding.username=sa",
+                        "--employees.sharding.password=",
+                        "--employees.reactive.enabled=" + reactive,
+                        "--employees.reactive.port=0")
+                .close();
+    }
+
+    private static String startupShardUrl(String name, int shard){
+        return "jdbc:h2:mem:" + name + "-" + shard + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @Test
+    public void givenWriteOnAnyShard_whenGetEmployeesVersion_thenTagMoves(){
+        //given
+        String before = employeeService.getEmployeesVersion();
+        employeeService.saveEmployee(employee("version@hotmail.com"));
+        String afterSave = employeeService.getEmployeesVersion();
+
+        //when
+        employeeService.saveEmployees(employees(6));
+
+        //then - one counter per shard
+        assertThat(afterSave).isNotEqualTo(before);
+        assertThat(employeeService.getEmployeesVersion()).isNotEqualTo(afterSave).contains(".");
+    }
+
+    private static List<Employee> employees(int count){
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            employees.add(employee("employee" + i + "@hotmail.com"));
+        }
+        return employees;
+    }
+
+    private static Employee employee(String email){
+        return Employee.builder()
+                .firstName("mustafa")
+                .lastName("güler")
+                .email(email)
+                .build();
+    }
+
+    // an email whose home shard is not the one the employee lives on
+    private static String movedEmail(long id){
+        int shard = ShardRoutingDataSource.shardOf(id, SHARDS);
+        for (int i = 0; ; i++) {
+            String email = "moved" + i + "@hotmail.com";
+            if(Math.floorMod(email.hashCode(), SHARDS) != shard){
+                return email;
+            }
+        }
+    }
+}